@@ -79,6 +79,31 @@ public @interface Email {
    */
   boolean requiressuffix() default true;
 
+  /**
+   * The maximum number of characters of a valid email address. Longer values are rejected before
+   * they are matched at all. The default is 254, the limit imposed by RFC 5321.
+   */
+  int maxLength() default 254;
+
+  /**
+   * The engine used to match the address. The default is {@link Engine#SCANNER}.
+   */
+  Engine engine() default Engine.SCANNER;
+
+  /**
+   * Engines matching the email address grammar. Both accept exactly the same addresses.
+   */
+  public enum Engine {
+    /**
+     * A single pass character scanner without backtracking.
+     */
+    SCANNER,
+    /**
+     * Regular expressions based on {@link java.util.regex.Pattern}.
+     */
+    REGEX
+  }
+
   /**
    * Defines several {@code @Email} annotations on the same element.
    */
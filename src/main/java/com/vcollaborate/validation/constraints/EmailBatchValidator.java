@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Matcher;
+
+/**
+ * Validates large batches of email addresses without the overhead of bean validation, with the
+ * same grammar as {@link Email}. Results are returned as a {@link BitSet}, whose bit {@code i} is
+ * set if the {@code i}-th address is valid. Like {@link EmailValidator}, empty addresses are
+ * considered valid.
+ * 
+ * <p>
+ * Instances are immutable and may be shared between threads. The parallel variants split a batch
+ * into chunks validated in the common {@link ForkJoinPool}.
+ * </p>
+ *
+ * @author Christian Sterzl
+ * @since 1.3.1
+ */
+public final class EmailBatchValidator {
+  /** Number of addresses validated by a single task, a multiple of 64. */
+  private static final int CHUNK_SIZE = 4096;
+
+  private final EmailValidator validator;
+
+  /**
+   * Creates a batch validator with the defaults of {@link Email}.
+   */
+  public EmailBatchValidator() {
+    this(true, Email.Engine.SCANNER, 254);
+  }
+
+  /**
+   * Creates a batch validator.
+   * 
+   * @param requireSuffix see {@link Email#requiressuffix()}
+   * @param engine see {@link Email#engine()}
+   * @param maxLength see {@link Email#maxLength()}
+   */
+  public EmailBatchValidator(final boolean requireSuffix, final Email.Engine engine,
+      final int maxLength) {
+    if (engine == null) {
+      throw new IllegalArgumentException("engine must not be null");
+    }
+    this.validator = new EmailValidator();
+    this.validator.initialize(requireSuffix, engine, maxLength);
+  }
+
+  /**
+   * Validates a list of addresses. {@code null} elements are considered valid.
+   */
+  public BitSet validate(final List<? extends CharSequence> addresses) {
+    return validate(new Addresses(addresses), false);
+  }
+
+  /**
+   * Validates a list of addresses in parallel chunks. {@code null} elements are considered valid.
+   */
+  public BitSet validateParallel(final List<? extends CharSequence> addresses) {
+    return validate(new Addresses(addresses), true);
+  }
+
+  /**
+   * Validates newline delimited addresses, e.g. a {@link java.nio.CharBuffer} of a file, without
+   * copying them. A trailing carriage return is not part of an address, and a trailing newline
+   * does not start another one.
+   */
+  public BitSet validateLines(final CharSequence lines) {
+    return validate(new Lines(lines), false);
+  }
+
+  /**
+   * Validates newline delimited addresses in parallel chunks, see
+   * {@link #validateLines(CharSequence)}.
+   */
+  public BitSet validateLinesParallel(final CharSequence lines) {
+    return validate(new Lines(lines), true);
+  }
+
+  private BitSet validate(final Batch batch, final boolean parallel) {
+    long[] words = new long[(batch.size() + 63) >>> 6];
+    Chunk chunk = new Chunk(batch, words, 0, batch.size());
+    if (parallel) {
+      ForkJoinPool.commonPool().invoke(chunk);
+    } else {
+      chunk.validate();
+    }
+    return BitSet.valueOf(words);
+  }
+
+  /**
+   * Addresses to validate, accessible by index.
+   */
+  private abstract class Batch {
+    abstract int size();
+
+    abstract boolean isValid(int index, Matcher matcher);
+  }
+
+  private final class Addresses extends Batch {
+    private final List<? extends CharSequence> addresses;
+
+    Addresses(final List<? extends CharSequence> addresses) {
+      if (addresses instanceof RandomAccess) {
+        this.addresses = addresses;
+      } else {
+        this.addresses = Arrays.asList(addresses.toArray(new CharSequence[0]));
+      }
+    }
+
+    @Override
+    int size() {
+      return addresses.size();
+    }
+
+    @Override
+    boolean isValid(final int index, final Matcher matcher) {
+      CharSequence address = addresses.get(index);
+      return address == null || validator.isValid(address, 0, address.length(), matcher);
+    }
+  }
+
+  private final class Lines extends Batch {
+    private final CharSequence lines;
+
+    /** Start of every line, followed by the position after the virtual last newline. */
+    private final int[] starts;
+
+    private final int size;
+
+    Lines(final CharSequence lines) {
+      this.lines = lines;
+      int length = lines.length();
+      int[] found = new int[16];
+      int count = 0;
+      int start = 0;
+      while (start < length) {
+        if (count + 1 >= found.length) {
+          found = Arrays.copyOf(found, found.length * 2);
+        }
+        found[count++] = start;
+        start = indexOfNewline(lines, start, length) + 1;
+      }
+      found[count] = start;
+      this.starts = found;
+      this.size = count;
+    }
+
+    @Override
+    int size() {
+      return size;
+    }
+
+    @Override
+    boolean isValid(final int index, final Matcher matcher) {
+      int start = starts[index];
+      int end = starts[index + 1] - 1;
+      if (end > start && lines.charAt(end - 1) == '\r') {
+        end--;
+      }
+      return validator.isValid(lines, start, end, matcher);
+    }
+  }
+
+  private static int indexOfNewline(final CharSequence value, final int start, final int end) {
+    for (int i = start; i < end; i++) {
+      if (value.charAt(i) == '\n') {
+        return i;
+      }
+    }
+    return end;
+  }
+
+  /**
+   * Validates the addresses from {@code from} (inclusive) to {@code to} (exclusive), splitting them
+   * at multiples of 64 so that every result word is written by a single task only.
+   */
+  private final class Chunk extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Batch batch;
+    private final long[] words;
+    private final int from;
+    private final int to;
+
+    Chunk(final Batch batch, final long[] words, final int from, final int to) {
+      this.batch = batch;
+      this.words = words;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= CHUNK_SIZE) {
+        validate();
+        return;
+      }
+      int middle = (from + (to - from) / 2) & ~63;
+      invokeAll(new Chunk(batch, words, from, middle), new Chunk(batch, words, middle, to));
+    }
+
+    void validate() {
+      Matcher matcher = validator.newMatcher();
+      for (int i = from; i < to; i++) {
+        if (batch.isValid(i, matcher)) {
+          words[i >>> 6] |= 1L << i;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+
+/**
+ * Validates files of newline delimited, UTF-8 encoded email addresses with the same grammar as
+ * {@link Email}, e.g. for nightly list hygiene of multi gigabyte files.
+ * 
+ * <p>
+ * The file is memory mapped in windows and plain ASCII lines are validated directly from the
+ * mapped buffer, without creating strings. Only lines containing other characters are decoded.
+ * Like {@link EmailBatchValidator#validateLines(CharSequence)}, a trailing carriage return is not
+ * part of an address, a trailing newline does not start another one and empty lines are valid.
+ * </p>
+ * 
+ * <p>
+ * Instances are immutable and may be shared between threads.
+ * </p>
+ *
+ * @author Christian Sterzl
+ * @since 1.3.1
+ */
+public final class EmailFileValidator {
+  /** Size of the mapped windows, 64 MiB. */
+  private static final int WINDOW_SIZE = 1 << 26;
+
+  /** The maximum number of UTF-8 bytes decoded to a single UTF-16 character. */
+  private static final int MAX_BYTES_PER_CHAR = 4;
+
+  private final EmailValidator validator;
+  private final int maxLength;
+  private final int windowSize;
+
+  /**
+   * Creates a file validator with the defaults of {@link Email}.
+   */
+  public EmailFileValidator() {
+    this(true, Email.Engine.SCANNER, 254);
+  }
+
+  /**
+   * Creates a file validator.
+   * 
+   * @param requireSuffix see {@link Email#requiressuffix()}
+   * @param engine see {@link Email#engine()}
+   * @param maxLength see {@link Email#maxLength()}
+   */
+  public EmailFileValidator(final boolean requireSuffix, final Email.Engine engine,
+      final int maxLength) {
+    this(requireSuffix, engine, maxLength, WINDOW_SIZE);
+  }
+
+  EmailFileValidator(final boolean requireSuffix, final Email.Engine engine, final int maxLength,
+      final int windowSize) {
+    if (engine == null) {
+      throw new IllegalArgumentException("engine must not be null");
+    }
+    this.validator = new EmailValidator();
+    this.validator.initialize(requireSuffix, engine, maxLength);
+    this.maxLength = maxLength;
+    this.windowSize = windowSize;
+  }
+
+  /**
+   * Validates every line of {@code file}.
+   * 
+   * @param invalidLines receives the byte offset of the start of every invalid line, in ascending
+   *        order
+   * @return the number of lines validated
+   */
+  public long validate(final Path file, final LongConsumer invalidLines) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return validate(channel, invalidLines);
+    }
+  }
+
+  private long validate(final FileChannel channel, final LongConsumer invalidLines)
+      throws IOException {
+    final long size = channel.size();
+    final Matcher matcher = validator.newMatcher();
+    final AsciiSequence ascii = new AsciiSequence();
+    long lines = 0;
+    long position = 0;
+    while (position < size) {
+      int limit = (int) Math.min(windowSize, size - position);
+      boolean last = position + limit == size;
+      MappedByteBuffer window = channel.map(MapMode.READ_ONLY, position, limit);
+      int start = 0;
+      while (start < limit) {
+        int end = start;
+        int bits = 0;
+        byte current;
+        while (end < limit && (current = window.get(end)) != '\n') {
+          bits |= current;
+          end++;
+        }
+        if (end == limit && !last) {
+          break;
+        }
+        lines++;
+        if (!isValid(window, start, end, bits < 0, ascii, matcher)) {
+          invalidLines.accept(position + start);
+        }
+        start = end + 1;
+      }
+      if (start == 0 && !last) {
+        // The line does not fit into a single window.
+        long end = indexOfNewline(channel, position + limit, size);
+        lines++;
+        if (isTooLong(end - position) || end - position > Integer.MAX_VALUE
+            || !isValid(channel.map(MapMode.READ_ONLY, position, end - position), 0,
+                (int) (end - position), true, ascii, matcher)) {
+          invalidLines.accept(position);
+        }
+        position = end + 1;
+      } else {
+        position += start;
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Validates the line between {@code start} and {@code end} of {@code buffer}, decoding it only
+   * if it may contain non-ASCII characters.
+   */
+  private boolean isValid(final ByteBuffer buffer, final int start, final int end,
+      final boolean decode, final AsciiSequence ascii, final Matcher matcher) {
+    int contentEnd = end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+    if (decode) {
+      if (isTooLong(contentEnd - start)) {
+        return false;
+      }
+      ByteBuffer line = buffer.duplicate();
+      // Through Buffer, as ByteBuffer only overrides these methods since Java 9.
+      ((Buffer) line).limit(contentEnd).position(start);
+      String value = StandardCharsets.UTF_8.decode(line).toString();
+      return validator.isValid(value, 0, value.length(), matcher);
+    }
+    ascii.set(buffer, start, contentEnd);
+    return validator.isValid(ascii, 0, ascii.length(), matcher);
+  }
+
+  /**
+   * Returns true if a line of {@code bytes} bytes, maybe including a carriage return, decodes to
+   * more characters than allowed, so it is invalid without being decoded.
+   */
+  private boolean isTooLong(final long bytes) {
+    return bytes - 1 > (long) MAX_BYTES_PER_CHAR * maxLength;
+  }
+
+  /**
+   * Returns the position of the next newline from {@code from} on, or {@code size} if there is
+   * none.
+   */
+  private long indexOfNewline(final FileChannel channel, final long from, final long size)
+      throws IOException {
+    long position = from;
+    while (position < size) {
+      int limit = (int) Math.min(windowSize, size - position);
+      MappedByteBuffer window = channel.map(MapMode.READ_ONLY, position, limit);
+      for (int i = 0; i < limit; i++) {
+        if (window.get(i) == '\n') {
+          return position + i;
+        }
+      }
+      position += limit;
+    }
+    return size;
+  }
+
+  /**
+   * A reusable view of ASCII encoded bytes as characters.
+   */
+  private static final class AsciiSequence implements CharSequence {
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    void set(final ByteBuffer buffer, final int start, final int end) {
+      this.buffer = buffer;
+      this.offset = start;
+      this.length = end - start;
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+      return (char) buffer.get(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+      AsciiSequence sequence = new AsciiSequence();
+      sequence.set(buffer, offset + start, offset + end);
+      return sequence;
+    }
+
+    @Override
+    public String toString() {
+      char[] chars = new char[length];
+      for (int i = 0; i < length; i++) {
+        chars[i] = charAt(i);
+      }
+      return new String(chars);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints;
+
+/**
+ * A single pass scanner for email addresses. It accepts exactly the language of the regular
+ * expressions in {@link EmailValidator}:
+ * 
+ * <pre>
+ * ATOM+(\.ATOM+)*@(ATOM+(\.ATOM+)*|\[[0-9]{1,3}\.[0-9]{1,3}\.[0-9]{1,3}\.[0-9]{1,3}\])
+ * </pre>
+ * 
+ * If a domain suffix is required, the domain has to consist of at least two atoms. The scanner
+ * neither backtracks nor allocates.
+ * 
+ * @author Christian Sterzl
+ * @since 1.3.1
+ */
+final class EmailScanner {
+
+  private static final String ATOM_SPECIALS = "!#$%&'*+/=?^_`{|}~-";
+  private static final int IP_DOMAIN_PARTS = 4;
+  private static final int MAX_IP_DOMAIN_DIGITS = 3;
+
+  private static final boolean[] ATOM = new boolean[128];
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      ATOM[c] = true;
+      ATOM[Character.toUpperCase(c)] = true;
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      ATOM[c] = true;
+    }
+    for (int i = 0; i < ATOM_SPECIALS.length(); i++) {
+      ATOM[ATOM_SPECIALS.charAt(i)] = true;
+    }
+  }
+
+  private EmailScanner() {
+  }
+
+  /**
+   * @param value
+   *          the characters to scan
+   * @param start
+   *          the index of the first character of the address
+   * @param end
+   *          the index after the last character of the address
+   * @param requireSuffix
+   *          true if the domain needs a suffix, see {@link Email#requiressuffix()}
+   * @return true if the characters between start and end are a valid email address
+   */
+  static boolean matches(final CharSequence value, final int start, final int end,
+      final boolean requireSuffix) {
+    int at = scanAtoms(value, start, end);
+    if (at < 0 || at >= end || value.charAt(at) != '@') {
+      return false;
+    }
+    int domainStart = at + 1;
+    if (domainStart < end && value.charAt(domainStart) == '[') {
+      return matchesIpDomain(value, domainStart + 1, end);
+    }
+    return scanDomain(value, domainStart, end, requireSuffix);
+  }
+
+  /**
+   * Scans {@code ATOM+(\.ATOM+)*}.
+   * 
+   * @return the index of the first character after the atoms or -1 if the atoms are malformed
+   */
+  private static int scanAtoms(final CharSequence value, final int start, final int end) {
+    int index = start;
+    while (true) {
+      int atomStart = index;
+      while (index < end && isAtom(value.charAt(index))) {
+        index++;
+      }
+      if (index == atomStart) {
+        return -1;
+      }
+      if (index < end && value.charAt(index) == '.') {
+        index++;
+      } else {
+        return index;
+      }
+    }
+  }
+
+  private static boolean scanDomain(final CharSequence value, final int start, final int end,
+      final boolean requireSuffix) {
+    int index = start;
+    int atoms = 0;
+    while (true) {
+      int atomStart = index;
+      while (index < end && isAtom(value.charAt(index))) {
+        index++;
+      }
+      if (index == atomStart) {
+        return false;
+      }
+      atoms++;
+      if (index == end) {
+        return !requireSuffix || atoms > 1;
+      }
+      if (value.charAt(index) != '.') {
+        return false;
+      }
+      index++;
+    }
+  }
+
+  /**
+   * Scans the part after the opening bracket of
+   * {@code \[[0-9]{1,3}\.[0-9]{1,3}\.[0-9]{1,3}\.[0-9]{1,3}\]}.
+   */
+  private static boolean matchesIpDomain(final CharSequence value, final int start,
+      final int end) {
+    int index = start;
+    for (int part = 0; part < IP_DOMAIN_PARTS; part++) {
+      int partStart = index;
+      while (index < end && index - partStart < MAX_IP_DOMAIN_DIGITS
+          && isDigit(value.charAt(index))) {
+        index++;
+      }
+      if (index == partStart || index >= end) {
+        return false;
+      }
+      char separator = value.charAt(index);
+      if (separator != (part < IP_DOMAIN_PARTS - 1 ? '.' : ']')) {
+        return false;
+      }
+      index++;
+    }
+    return index == end;
+  }
+
+  private static boolean isAtom(final char c) {
+    return c < ATOM.length && ATOM[c];
+  }
+
+  private static boolean isDigit(final char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -27,6 +27,8 @@ import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 
 /**
+ * Validates {@link Email} constraints, either with the {@link EmailScanner} or with regular
+ * expressions, see {@link Email#engine()}.
  *
  * @author Christian Sterzl
  * @since 1.2.6
@@ -35,37 +37,143 @@ import javax.validation.ConstraintValidatorContext;
  * @see com.vcollaborate.validation.constraints.Email
  */
 public class EmailValidator implements ConstraintValidator<Email, CharSequence> {
-  private static String ATOM = "[a-z0-9!#$%&'*+/=?^_`{|}~-]";
-  private static String DOMAIN = "(" + ATOM + "+(\\." + ATOM + "+)*";
-  private static String DOMAIN_WITHSUFFIX = "(" + ATOM + "+(\\." + ATOM + "+)+";
-  private static String IP_DOMAIN = "\\[[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\]";
+  private static final String ATOM = "[a-z0-9!#$%&'*+/=?^_`{|}~-]";
+  // Atoms never contain '.' or '@', so the possessive quantifiers accept the same addresses as
+  // greedy ones would, but never backtrack into an atom and match in linear time.
+  private static final String LOCAL_PART = ATOM + "++(?:\\." + ATOM + "++)*+";
+  private static final String DOMAIN = "(?:" + ATOM + "++(?:\\." + ATOM + "++)*+";
+  private static final String DOMAIN_WITHSUFFIX = "(?:" + ATOM + "++(?:\\." + ATOM + "++)++";
+  private static final String IP_DOMAIN =
+      "\\[[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\]";
+  private static final int MAX_LABEL_LENGTH = 63;
 
-  private Pattern pattern = Pattern.compile("^" + ATOM + "+(\\."
-      + ATOM + "+)*@" + DOMAIN + "|" + IP_DOMAIN + ")$", Pattern.CASE_INSENSITIVE);
+  private boolean requireSuffix;
 
-  private Pattern patternWithSuffix = Pattern.compile("^" + ATOM
-      + "+(\\." + ATOM + "+)*@" + DOMAIN_WITHSUFFIX + "|" + IP_DOMAIN + ")$",
-      Pattern.CASE_INSENSITIVE);
+  private int maxLength;
 
-  Email annotation;
+  /** The shared pattern to match with, or {@code null} if the {@link EmailScanner} is used. */
+  private Pattern pattern;
 
   @Override
   public void initialize(Email annotation) {
-    this.annotation = annotation;
+    initialize(annotation.requiressuffix(), annotation.engine(), annotation.maxLength());
+  }
+
+  void initialize(final boolean requireSuffix, final Email.Engine engine, final int maxLength) {
+    this.requireSuffix = requireSuffix;
+    this.maxLength = maxLength;
+    if (engine == Email.Engine.SCANNER) {
+      this.pattern = null;
+    } else if (requireSuffix) {
+      this.pattern = PatternWithSuffix.INSTANCE;
+    } else {
+      this.pattern = PatternWithoutSuffix.INSTANCE;
+    }
   }
 
   @Override
   public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
-    if (value == null || value.length() == 0) {
+    if (value == null) {
+      return true;
+    }
+    return isValid(value, 0, value.length(), null);
+  }
+
+  /**
+   * Validates the address between {@code start} (inclusive) and {@code end} (exclusive) of
+   * {@code value}.
+   * 
+   * @param matcher a matcher of {@link #newMatcher()} to reuse, or {@code null} to create a new one
+   *        if needed
+   */
+  boolean isValid(final CharSequence value, final int start, final int end,
+      final Matcher matcher) {
+    if (start == end) {
       return true;
     }
-    String asciiString = IDN.toASCII(value.toString());
-    Matcher matcher;
-    if (annotation.requiressuffix()) {
-      matcher = patternWithSuffix.matcher(asciiString);
+    if (end - start > maxLength) {
+      return false;
+    }
+    // Only the labels of the domain are limited, the local part is not passed to IDN.toASCII.
+    int labelStart = -1;
+    for (int i = start; i < end; i++) {
+      char current = value.charAt(i);
+      if (current >= 0x80) {
+        return isValidInternational(value.subSequence(start, end).toString(), matcher);
+      }
+      if (current == '@' || current == '.' && labelStart >= 0) {
+        labelStart = i + 1;
+      } else if (labelStart >= 0 && i - labelStart >= MAX_LABEL_LENGTH) {
+        // IDN.toASCII rejects such labels, so do we.
+        return false;
+      }
+    }
+    return matches(value, start, end, matcher);
+  }
+
+  /**
+   * Returns a matcher which can be passed to {@link #isValid(CharSequence, int, int, Matcher)}
+   * repeatedly by a single thread, or {@code null} if the {@link EmailScanner} is used.
+   */
+  Matcher newMatcher() {
+    return pattern == null ? null : pattern.matcher("");
+  }
+
+  /**
+   * Validates an address containing non-ASCII characters. If these are restricted to the domain
+   * only the domain is converted to its ASCII compatible encoding, otherwise the whole address is.
+   */
+  private boolean isValidInternational(final String value, final Matcher matcher) {
+    int at = value.indexOf('@');
+    String asciiString;
+    if (at >= 0 && isAscii(value, 0, at)) {
+      String domain = toAscii(value.substring(at + 1));
+      asciiString = domain == null ? null : value.substring(0, at + 1) + domain;
     } else {
-      matcher = pattern.matcher(asciiString);
+      asciiString = toAscii(value);
     }
-    return matcher.matches();
+    return asciiString != null && matches(asciiString, 0, asciiString.length(), matcher);
+  }
+
+  private boolean matches(final CharSequence value, final int start, final int end,
+      final Matcher matcher) {
+    if (pattern == null) {
+      return EmailScanner.matches(value, start, end, requireSuffix);
+    }
+    Matcher regionMatcher = matcher == null ? pattern.matcher(value) : matcher.reset(value);
+    return regionMatcher.region(start, end).matches();
+  }
+
+  private static boolean isAscii(final CharSequence value, final int start, final int end) {
+    for (int i = start; i < end; i++) {
+      if (value.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the ASCII compatible encoding of {@code value}, or {@code null} if it is not a legal
+   * internationalized name.
+   */
+  private static String toAscii(final String value) {
+    try {
+      return IDN.toASCII(value);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /** Holds the pattern for {@code requiressuffix = false}, compiled on first use. */
+  private static final class PatternWithoutSuffix {
+    static final Pattern INSTANCE = Pattern.compile(
+        "^" + LOCAL_PART + "@" + DOMAIN + "|" + IP_DOMAIN + ")$", Pattern.CASE_INSENSITIVE);
+  }
+
+  /** Holds the pattern for {@code requiressuffix = true}, compiled on first use. */
+  private static final class PatternWithSuffix {
+    static final Pattern INSTANCE = Pattern.compile("^" + LOCAL_PART + "@" + DOMAIN_WITHSUFFIX
+        + "|" + IP_DOMAIN + ")$", Pattern.CASE_INSENSITIVE);
   }
 }
@@ -19,13 +19,28 @@
 
 package com.vcollaborate.validation.constraints;
 
-import org.joda.time.DateMidnight;
 import org.joda.time.DateTime;
+import org.joda.time.ReadableInstant;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Date;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 
 /**
+ * Validates {@link Future} constraints. Values of the java.time types {@link Instant},
+ * {@link OffsetDateTime}, {@link ZonedDateTime}, {@link LocalDate} and {@link LocalDateTime} as
+ * well as {@link Date}, {@link Calendar}, {@link ReadableInstant} and {@link Long} are compared
+ * directly, all other values are converted into a joda-time {@link DateTime}.
+ * 
+ * The current time and midnight are taken from a {@link ValidationClock}, by default from
+ * {@link ValidationClock#getDefault()}.
  * 
  * @author Christian Sterzl
  * @since 1.2.4
@@ -33,8 +48,25 @@ import javax.validation.ConstraintValidatorContext;
  */
 public class FutureValidator implements ConstraintValidator<Future, Object> {
 
+  private final ValidationClock clock;
+
   private boolean today = false;
 
+  /**
+   * Creates a validator using {@link ValidationClock#getDefault()}.
+   */
+  public FutureValidator() {
+    this(null);
+  }
+
+  /**
+   * @param clock
+   *          the clock to use, null to use {@link ValidationClock#getDefault()}
+   */
+  public FutureValidator(final ValidationClock clock) {
+    this.clock = clock;
+  }
+
   /**
    * {@inheritDoc}
    * 
@@ -51,10 +83,26 @@ public class FutureValidator implements ConstraintValidator<Future, Object> {
    *      javax.validation.ConstraintValidatorContext)
    */
   public final boolean isValid(final Object value, final ConstraintValidatorContext context) {
-    DateTime dateTime = new DateTime(value);
+    ValidationClock currentClock = clock != null ? clock : ValidationClock.getDefault();
+    long now = currentClock.millis();
+
+    if (value instanceof LocalDate) {
+      long epochDay = ((LocalDate) value).toEpochDay();
+      long currentEpochDay = currentClock.epochDay(now);
+      return today ? epochDay >= currentEpochDay : epochDay > currentEpochDay;
+    }
+    if (value instanceof LocalDateTime) {
+      LocalDateTime dateTime = (LocalDateTime) value;
+      if (today) {
+        return dateTime.toLocalDate().toEpochDay() >= currentClock.epochDay(now);
+      }
+      return ValidationClock.toEpochMillis(dateTime) > currentClock.localMillis(now);
+    }
+
+    long epochMillis = value == null ? now : ValidationClock.toEpochMillis(value);
     if (!today) {
-      return dateTime.isAfterNow();
+      return epochMillis > now;
     }
-    return dateTime.isAfter(new DateMidnight()) || dateTime.isEqual(new DateMidnight());
+    return epochMillis >= currentClock.startOfDay(now);
   }
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints;
+
+import org.joda.time.DateTime;
+import org.joda.time.ReadableInstant;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * The source of the current time for time based constraints like {@link Future}.
+ * 
+ * Wraps a {@link Clock} and caches the boundaries of the current day in the clock's time zone. The
+ * cache is only recomputed when the day rolls over or the zone offset changes, so asking for the
+ * current midnight does not allocate.
+ * 
+ * By default the system clock in the default time zone is used. The default time zone is read
+ * again whenever the cached day expires, i.e. at midnight or at a zone offset transition, so a
+ * change of the default time zone takes effect from then on. Tests can replace the clock with
+ * {@link #setDefault(ValidationClock)} and {@link #fixed(Instant, ZoneId)}.
+ * 
+ * @author Christian Sterzl
+ * @since 1.3.1
+ */
+public final class ValidationClock {
+
+  private static final long MILLIS_PER_DAY = 86400000L;
+  private static final long MILLIS_PER_SECOND = 1000L;
+  private static final int NANOS_PER_MILLI = 1000000;
+
+  private static volatile ValidationClock defaultClock = new ValidationClock();
+
+  private final Clock clock;
+
+  /** Whether the zone is the default time zone at the time the day is computed. */
+  private final boolean defaultZone;
+
+  private volatile Day day;
+
+  /**
+   * @param clock
+   *          the clock providing the current instant and time zone
+   */
+  public ValidationClock(final Clock clock) {
+    if (clock == null) {
+      throw new IllegalArgumentException("clock must not be null");
+    }
+    this.clock = clock;
+    this.defaultZone = false;
+  }
+
+  private ValidationClock() {
+    this.clock = Clock.systemUTC();
+    this.defaultZone = true;
+  }
+
+  /**
+   * @param instant
+   *          the instant the clock always returns
+   * @param zone
+   *          the time zone used to determine the current day
+   * @return a clock which always returns the same instant
+   */
+  public static ValidationClock fixed(final Instant instant, final ZoneId zone) {
+    return new ValidationClock(Clock.fixed(instant, zone));
+  }
+
+  /**
+   * @return the clock used by validators which were not given their own clock
+   */
+  public static ValidationClock getDefault() {
+    return defaultClock;
+  }
+
+  /**
+   * @param clock
+   *          the clock used by validators which were not given their own clock, null restores the
+   *          system clock
+   */
+  public static void setDefault(final ValidationClock clock) {
+    defaultClock = clock != null ? clock : new ValidationClock();
+  }
+
+  /**
+   * @return the current milliseconds since the epoch
+   */
+  public long millis() {
+    return clock.millis();
+  }
+
+  /**
+   * @param now
+   *          the current milliseconds since the epoch as returned by {@link #millis()}
+   * @return the milliseconds since the epoch of the last midnight
+   */
+  public long startOfDay(final long now) {
+    return day(now).startOfDay;
+  }
+
+  /**
+   * @param now
+   *          the current milliseconds since the epoch as returned by {@link #millis()}
+   * @return the current day as in {@link LocalDate#toEpochDay()}
+   */
+  public long epochDay(final long now) {
+    return day(now).epochDay;
+  }
+
+  /**
+   * @param now
+   *          the current milliseconds since the epoch as returned by {@link #millis()}
+   * @return the current local date and time as milliseconds on the UTC time line
+   */
+  public long localMillis(final long now) {
+    return now + day(now).offsetMillis;
+  }
+
+  /**
+   * Converts a date value into milliseconds since the epoch, as compared with {@link #millis()}.
+   * The common date types and the java.time types are read directly, everything else is converted
+   * by joda-time. {@link LocalDate} and {@link LocalDateTime} values have no time zone, they are
+   * placed on the UTC time line like {@link #localMillis(long)}.
+   * 
+   * @param value
+   *          a non null date value
+   * @return the milliseconds since 1970-01-01T00:00:00Z
+   * @throws IllegalArgumentException
+   *           if joda-time can't convert the value
+   */
+  public static long toEpochMillis(final Object value) {
+    if (value instanceof Date) {
+      return ((Date) value).getTime();
+    }
+    if (value instanceof Calendar) {
+      return ((Calendar) value).getTimeInMillis();
+    }
+    if (value instanceof ReadableInstant) {
+      return ((ReadableInstant) value).getMillis();
+    }
+    if (value instanceof Long) {
+      return ((Long) value).longValue();
+    }
+    if (value instanceof Instant) {
+      return ((Instant) value).toEpochMilli();
+    }
+    if (value instanceof ZonedDateTime) {
+      ZonedDateTime dateTime = (ZonedDateTime) value;
+      return dateTime.toEpochSecond() * MILLIS_PER_SECOND + dateTime.getNano() / NANOS_PER_MILLI;
+    }
+    if (value instanceof OffsetDateTime) {
+      OffsetDateTime dateTime = (OffsetDateTime) value;
+      return dateTime.toEpochSecond() * MILLIS_PER_SECOND + dateTime.getNano() / NANOS_PER_MILLI;
+    }
+    if (value instanceof LocalDate) {
+      return ((LocalDate) value).toEpochDay() * MILLIS_PER_DAY;
+    }
+    if (value instanceof LocalDateTime) {
+      LocalDateTime dateTime = (LocalDateTime) value;
+      return dateTime.toEpochSecond(ZoneOffset.UTC) * MILLIS_PER_SECOND
+          + dateTime.getNano() / NANOS_PER_MILLI;
+    }
+    return new DateTime(value).getMillis();
+  }
+
+  private Day day(final long now) {
+    Day current = day;
+    if (current == null || now < current.validFrom || now >= current.validUntil) {
+      current = new Day(now, defaultZone ? ZoneId.systemDefault() : clock.getZone());
+      day = current;
+    }
+    return current;
+  }
+
+  /**
+   * The boundaries of one day, valid as long as neither the day nor the zone offset changes.
+   */
+  private static final class Day {
+    private final long validFrom;
+    private final long validUntil;
+    private final long startOfDay;
+    private final long epochDay;
+    private final long offsetMillis;
+
+    Day(final long now, final ZoneId zone) {
+      Instant instant = Instant.ofEpochMilli(now);
+      ZoneRules rules = zone.getRules();
+      LocalDate today = instant.atZone(zone).toLocalDate();
+
+      this.startOfDay = today.atStartOfDay(zone).toInstant().toEpochMilli();
+      this.epochDay = today.toEpochDay();
+      this.offsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000L;
+
+      long until = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+      ZoneOffsetTransition transition = rules.nextTransition(instant);
+      if (transition != null) {
+        until = Math.min(until, transition.getInstant().toEpochMilli());
+      }
+      long from = startOfDay;
+      // A transition exactly at now already applies, so it is looked up from the next millisecond.
+      transition = rules.previousTransition(instant.plusMillis(1));
+      if (transition != null) {
+        from = Math.max(from, transition.getInstant().toEpochMilli());
+      }
+      this.validFrom = from;
+      this.validUntil = until;
+    }
+  }
+}
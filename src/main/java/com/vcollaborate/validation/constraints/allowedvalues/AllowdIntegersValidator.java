@@ -19,14 +19,12 @@
 
 package com.vcollaborate.validation.constraints.allowedvalues;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 
 /**
- * Validates an integer value against an array of allowed values.
+ * Validates an integer value against an array of allowed values. The allowed values are kept in
+ * an {@link IntSet}, so the lookup needs no boxing.
  * 
  * @author Christian Sterzl
  * @since 1.0
@@ -34,7 +32,7 @@ import javax.validation.ConstraintValidatorContext;
  */
 public class AllowdIntegersValidator implements ConstraintValidator<AllowedIntegers, Object> {
 
-  private List<Integer> allowedValues;
+  private IntSet allowedValues;
 
   private boolean nullAllowed = true;
 
@@ -44,19 +42,41 @@ public class AllowdIntegersValidator implements ConstraintValidator<AllowedInteg
    * @see javax.validation.ConstraintValidator#initialize(java.lang.annotation.Annotation)
    */
   public final void initialize(final AllowedIntegers constraintAnnotation) {
-    allowedValues = new ArrayList<Integer>();
-    for (int index = 0; index < constraintAnnotation.value().length; index++) {
-      allowedValues.add(constraintAnnotation.value()[index]);
+    String[] ranges = constraintAnnotation.ranges();
+    int[][] parsedRanges = new int[ranges.length][];
+    for (int index = 0; index < ranges.length; index++) {
+      parsedRanges[index] = parseRange(ranges[index]);
     }
+    allowedValues = IntSet.of(constraintAnnotation.value(), parsedRanges);
 
     nullAllowed = constraintAnnotation.nullAllowed();
   }
 
+  /**
+   * Parses a range like {@code "300"}, {@code "100-199"} or {@code "-10--1"}.
+   * 
+   * @return the inclusive lower and upper bound
+   */
+  private static int[] parseRange(final String range) {
+    String trimmed = range.trim();
+    int separator = trimmed.indexOf('-', 1);
+    try {
+      if (separator < 0) {
+        int value = Integer.parseInt(trimmed);
+        return new int[] { value, value };
+      }
+      return new int[] { Integer.parseInt(trimmed.substring(0, separator).trim()),
+          Integer.parseInt(trimmed.substring(separator + 1).trim()) };
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid range '" + range + "' in @AllowedIntegers.", e);
+    }
+  }
+
   /**
    * {@inheritDoc}
    * 
    * Test, if null is allowed ({@link AllowedIntegers#nullAllowed()}), if the value is contained in
-   * the array {@link AllowedIntegers#value()}.
+   * the array {@link AllowedIntegers#value()} or in one of the {@link AllowedIntegers#ranges()}.
    * 
    * @see javax.validation.ConstraintValidator#isValid(java.lang.Object,
    *      javax.validation.ConstraintValidatorContext)
@@ -69,7 +89,7 @@ public class AllowdIntegersValidator implements ConstraintValidator<AllowedInteg
     }
 
     if (value instanceof Integer) {
-      valid = allowedValues.contains(value);
+      valid = allowedValues.contains(((Integer) value).intValue());
     }
 
     return valid;
@@ -19,14 +19,17 @@
 
 package com.vcollaborate.validation.constraints.allowedvalues;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 
 /**
- * Validates a string against an array of allowed values.
+ * Validates a string against an array of allowed values. The allowed values are kept in a hash
+ * set, so the lookup does not depend on the number of allowed values.
  * 
  * @author Christian Sterzl
  * @since 1.0
@@ -34,7 +37,7 @@ import javax.validation.ConstraintValidatorContext;
  */
 public class AllowdStringsValidator implements ConstraintValidator<AllowedStrings, Object> {
 
-  private List<String> allowedValues;
+  private Set<String> allowedValues;
 
   private boolean nullAllowed = true;
 
@@ -44,10 +47,8 @@ public class AllowdStringsValidator implements ConstraintValidator<AllowedString
    * @see javax.validation.ConstraintValidator#initialize(java.lang.annotation.Annotation)
    */
   public final void initialize(final AllowedStrings constraintAnnotation) {
-    allowedValues = new ArrayList<String>();
-    for (int index = 0; index < constraintAnnotation.value().length; index++) {
-      allowedValues.add(constraintAnnotation.value()[index]);
-    }
+    allowedValues = Collections.unmodifiableSet(new HashSet<String>(
+        Arrays.asList(constraintAnnotation.value())));
 
     nullAllowed = constraintAnnotation.nullAllowed();
   }
@@ -28,6 +28,9 @@ import javax.validation.Constraint;
 import javax.validation.Payload;
 
 /**
+ * The annotated element must be one of the integers in {@link #value()} or within one of the
+ * {@link #ranges()}.
+ * 
  * @author Christian Sterzl
  * @since 1.0
  */
@@ -41,7 +44,14 @@ public @interface AllowedIntegers {
 
   String message() default "Invalid value";
 
-  int[] value();
+  int[] value() default {};
+
+  /**
+   * Returns ranges of allowed values. A range is either a single integer like {@code "300"} or an
+   * inclusive lower and upper bound separated by a minus like {@code "100-199"} or
+   * {@code "-10--1"}.
+   */
+  String[] ranges() default {};
 
   boolean nullAllowed() default true;
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.allowedvalues;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * An immutable set of primitive ints. {@link #of(int[], int[][])} chooses the representation by
+ * size and density of the values: a bitset for dense values, a sorted array with binary search for
+ * a few sparse values, an open addressing hash set for many sparse values and sorted disjoint
+ * intervals for wide ranges.
+ * 
+ * @author Christian Sterzl
+ * @since 1.3.1
+ */
+abstract class IntSet {
+
+  private static final int MAX_SORTED_ARRAY_SIZE = 16;
+  private static final long MIN_BITSET_SPAN = 1024L;
+  private static final long BITS_PER_VALUE = 32L;
+
+  /**
+   * @param value
+   *          the value to look up
+   * @return true if the value is contained in this set
+   */
+  abstract boolean contains(int value);
+
+  /**
+   * @param values
+   *          the values of the set, may contain duplicates
+   * @return an immutable set containing the given values
+   */
+  static IntSet of(final int[] values) {
+    return of(values, new int[0][]);
+  }
+
+  /**
+   * @param values
+   *          single values of the set, may contain duplicates
+   * @param ranges
+   *          pairs of inclusive lower and upper bounds, may overlap each other and the values
+   * @return an immutable set containing the given values and ranges
+   */
+  static IntSet of(final int[] values, final int[][] ranges) {
+    long[][] intervals = mergedIntervals(values, ranges);
+    long[] lower = intervals[0];
+    long[] upper = intervals[1];
+    if (lower.length == 0) {
+      return new SortedArrayIntSet(new int[0]);
+    }
+
+    long span = upper[upper.length - 1] - lower[0] + 1;
+    if (span <= Math.max(MIN_BITSET_SPAN, BITS_PER_VALUE * lower.length)) {
+      return new BitSetIntSet(lower, upper);
+    }
+
+    long size = 0;
+    for (int i = 0; i < lower.length; i++) {
+      size += upper[i] - lower[i] + 1;
+    }
+    if (size > lower.length) {
+      return new RangeIntSet(lower, upper);
+    }
+
+    int[] sorted = new int[lower.length];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = (int) lower[i];
+    }
+    if (sorted.length <= MAX_SORTED_ARRAY_SIZE) {
+      return new SortedArrayIntSet(sorted);
+    }
+    return new HashIntSet(sorted);
+  }
+
+  /**
+   * Merges the values and ranges into sorted, disjoint and non adjacent intervals.
+   * 
+   * @return the lower bounds at index 0 and the upper bounds at index 1
+   */
+  private static long[][] mergedIntervals(final int[] values, final int[][] ranges) {
+    long[][] intervals = new long[values.length + ranges.length][];
+    int count = 0;
+    for (int value : values) {
+      intervals[count++] = new long[] { value, value };
+    }
+    for (int[] range : ranges) {
+      if (range[0] > range[1]) {
+        throw new IllegalArgumentException("Lower bound " + range[0]
+            + " is greater than upper bound " + range[1] + ".");
+      }
+      intervals[count++] = new long[] { range[0], range[1] };
+    }
+    Arrays.sort(intervals, new Comparator<long[]>() {
+      @Override
+      public int compare(final long[] first, final long[] second) {
+        return Long.compare(first[0], second[0]);
+      }
+    });
+
+    long[] lower = new long[count];
+    long[] upper = new long[count];
+    int merged = 0;
+    for (long[] interval : intervals) {
+      if (merged > 0 && interval[0] <= upper[merged - 1] + 1) {
+        upper[merged - 1] = Math.max(upper[merged - 1], interval[1]);
+      } else {
+        lower[merged] = interval[0];
+        upper[merged] = interval[1];
+        merged++;
+      }
+    }
+    return new long[][] { Arrays.copyOf(lower, merged), Arrays.copyOf(upper, merged) };
+  }
+
+  /**
+   * Dense values, one bit per value between the smallest and the largest value.
+   */
+  static final class BitSetIntSet extends IntSet {
+    private final long offset;
+    private final long[] words;
+
+    BitSetIntSet(final long[] lower, final long[] upper) {
+      this.offset = lower[0];
+      long span = upper[upper.length - 1] - offset + 1;
+      this.words = new long[(int) ((span + 63) >>> 6)];
+      for (int i = 0; i < lower.length; i++) {
+        for (long bit = lower[i] - offset; bit <= upper[i] - offset; bit++) {
+          words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+      }
+    }
+
+    @Override
+    boolean contains(final int value) {
+      long bit = value - offset;
+      if (bit < 0) {
+        return false;
+      }
+      long word = bit >>> 6;
+      return word < words.length && (words[(int) word] & (1L << bit)) != 0;
+    }
+  }
+
+  /**
+   * A few sparse values, looked up by binary search.
+   */
+  static final class SortedArrayIntSet extends IntSet {
+    private final int[] sorted;
+
+    SortedArrayIntSet(final int[] sorted) {
+      this.sorted = sorted;
+    }
+
+    @Override
+    boolean contains(final int value) {
+      return Arrays.binarySearch(sorted, value) >= 0;
+    }
+  }
+
+  /**
+   * Many sparse values in an open addressing hash table with linear probing.
+   */
+  static final class HashIntSet extends IntSet {
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    private final int[] table;
+    private final boolean[] used;
+    private final int mask;
+
+    HashIntSet(final int[] sorted) {
+      int capacity = Integer.highestOneBit(sorted.length * 2 - 1) << 1;
+      this.table = new int[capacity];
+      this.used = new boolean[capacity];
+      this.mask = capacity - 1;
+      for (int value : sorted) {
+        int index = index(value);
+        while (used[index]) {
+          index = (index + 1) & mask;
+        }
+        table[index] = value;
+        used[index] = true;
+      }
+    }
+
+    private int index(final int value) {
+      int hash = value * GOLDEN_RATIO;
+      return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    @Override
+    boolean contains(final int value) {
+      int index = index(value);
+      while (used[index]) {
+        if (table[index] == value) {
+          return true;
+        }
+        index = (index + 1) & mask;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Wide ranges as sorted disjoint intervals, looked up by binary search over the lower bounds.
+   */
+  static final class RangeIntSet extends IntSet {
+    private final long[] lower;
+    private final long[] upper;
+
+    RangeIntSet(final long[] lower, final long[] upper) {
+      this.lower = lower;
+      this.upper = upper;
+    }
+
+    @Override
+    boolean contains(final int value) {
+      int index = Arrays.binarySearch(lower, value);
+      if (index >= 0) {
+        return true;
+      }
+      int candidate = -index - 2;
+      return candidate >= 0 && value <= upper[candidate];
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.daterange;
+
+/**
+ * Base class of the validators generated at compile time by the
+ * {@link com.vcollaborate.validation.constraints.daterange.processor.DateRangeProcessor} for
+ * classes annotated with {@link DateRange}. A generated validator reads the {@link StartDate} and
+ * {@link EndDate} members directly instead of through reflection.
+ * 
+ * The {@link DateRangeValidator} prefers a generated validator if one is found and falls back to
+ * reflection otherwise. It is looked up by the binary name of the validated class followed by
+ * {@link #CLASS_NAME_SUFFIX}, e.g. {@code com.example.Booking$Stay_DateRangeValidator}, and must
+ * have a public constructor without arguments.
+ * 
+ * @author Christian Sterzl
+ * @since 1.3.1
+ */
+public abstract class CompiledDateRange {
+
+  /**
+   * Appended to the binary name of the validated class to get the name of its validator.
+   */
+  public static final String CLASS_NAME_SUFFIX = "_DateRangeValidator";
+
+  private final int size;
+
+  /**
+   * @param size
+   *          the number of ranges which are validated
+   */
+  protected CompiledDateRange(final int size) {
+    this.size = size;
+  }
+
+  /**
+   * @param instance
+   *          an instance of the class this validator was generated for
+   * @return true if all ranges of the instance are valid
+   */
+  public abstract boolean isValid(Object instance);
+
+  /**
+   * @return the number of ranges which are validated
+   */
+  final int size() {
+    return size;
+  }
+
+  /**
+   * @param value
+   *          a member value, possibly a boxed primitive
+   * @return true if the value is null
+   */
+  protected static boolean isNull(final Object value) {
+    return value == null;
+  }
+
+  /**
+   * Validates a single range. A range is valid if one of its dates is null.
+   * 
+   * @see DateRangeValidator#isValidRange(long, long, long, long[])
+   */
+  protected static boolean isValidRange(final Object startDate, final Object endDate,
+      final long minimumDaysRange, final long[] allowedDayRanges) {
+    if (startDate == null || endDate == null) {
+      return true;
+    }
+    return DateRangeValidator.isValidRange(DateValues.toEpochMillis(startDate),
+        DateValues.toEpochMillis(endDate), minimumDaysRange, allowedDayRanges);
+  }
+
+  /**
+   * Returns a new instance of the validator generated for the given class.
+   * 
+   * @param type
+   *          the class of the validated instance
+   * @return the generated validator, or null if there is none
+   */
+  static CompiledDateRange forClass(final Class<?> type) {
+    Class<?> generated;
+    try {
+      generated = Class.forName(type.getName() + CLASS_NAME_SUFFIX, true, type.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+    if (!CompiledDateRange.class.isAssignableFrom(generated)) {
+      return null;
+    }
+    try {
+      return (CompiledDateRange) generated.getConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(generated + " can not be instantiated.", e);
+    }
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.daterange;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The precompiled date ranges of a class annotated with {@link DateRange}.
+ * 
+ * The {@link StartDate} and {@link EndDate} fields and getter methods of the class and all its
+ * superclasses are resolved once per class and cached. Each range, identified by
+ * {@link StartDate#id()} and {@link EndDate#id()}, gets a dense slot number, so validating an
+ * instance is a loop over the slot arrays. The values are read with {@link Field#get(Object)} and
+ * {@link Method#invoke(Object, Object...)}; only a generated {@link CompiledDateRange} reads the
+ * members without reflection.
+ * 
+ * Ranges without a start or an end date are always valid and are not part of the plan. If several
+ * start dates share an id, the last one is used. If several end dates share an id, the range is
+ * only validated if all but the last end date are null.
+ * 
+ * If a {@link CompiledDateRange} was generated for the class at compile time, the plan delegates to
+ * it and no reflection is used at all.
+ * 
+ * @author Christian Sterzl
+ */
+final class DateRangePlan {
+
+  private static final ClassValue<DateRangePlan> CACHE = new ClassValue<DateRangePlan>() {
+    @Override
+    protected DateRangePlan computeValue(final Class<?> type) {
+      CompiledDateRange compiled = CompiledDateRange.forClass(type);
+      return compiled != null ? new DateRangePlan(compiled) : new DateRangePlan(type);
+    }
+  };
+
+  private final AccessibleObject[] startDates;
+  private final AccessibleObject[] endDates;
+  private final AccessibleObject[][] precedingEndDates;
+  private final long[] minimumDaysRanges;
+  private final long[][] allowedDayRanges;
+  private final CompiledDateRange compiled;
+
+  private DateRangePlan(final CompiledDateRange compiled) {
+    this.startDates = new AccessibleObject[0];
+    this.endDates = new AccessibleObject[0];
+    this.precedingEndDates = new AccessibleObject[0][];
+    this.minimumDaysRanges = new long[0];
+    this.allowedDayRanges = new long[0][];
+    this.compiled = compiled;
+  }
+
+  private DateRangePlan(final Class<?> type) {
+    this.compiled = null;
+    Map<Integer, AccessibleObject> startDatesById = new TreeMap<Integer, AccessibleObject>();
+    Map<Integer, List<AccessibleObject>> endDatesById =
+        new TreeMap<Integer, List<AccessibleObject>>();
+    Map<Integer, EndDate> lastEndDateById = new TreeMap<Integer, EndDate>();
+
+    for (AccessibleObject member : annotatedMembers(type)) {
+      StartDate startDate = member.getAnnotation(StartDate.class);
+      EndDate endDate = member.getAnnotation(EndDate.class);
+      member.setAccessible(true);
+      if (startDate != null) {
+        startDatesById.put(startDate.id(), member);
+      }
+      if (endDate != null) {
+        List<AccessibleObject> members = endDatesById.get(endDate.id());
+        if (members == null) {
+          members = new ArrayList<AccessibleObject>();
+          endDatesById.put(endDate.id(), members);
+        }
+        members.add(member);
+        lastEndDateById.put(endDate.id(), endDate);
+      }
+    }
+
+    startDatesById.keySet().retainAll(endDatesById.keySet());
+    int slots = startDatesById.size();
+    this.startDates = new AccessibleObject[slots];
+    this.endDates = new AccessibleObject[slots];
+    this.precedingEndDates = new AccessibleObject[slots][];
+    this.minimumDaysRanges = new long[slots];
+    this.allowedDayRanges = new long[slots][];
+
+    int slot = 0;
+    for (Map.Entry<Integer, AccessibleObject> entry : startDatesById.entrySet()) {
+      List<AccessibleObject> members = endDatesById.get(entry.getKey());
+      EndDate endDate = lastEndDateById.get(entry.getKey());
+      int last = members.size() - 1;
+
+      startDates[slot] = entry.getValue();
+      endDates[slot] = members.get(last);
+      precedingEndDates[slot] = members.subList(0, last).toArray(new AccessibleObject[last]);
+      minimumDaysRanges[slot] = endDate.minimumDaysRange();
+      allowedDayRanges[slot] = endDate.allowedDayRanges();
+      slot++;
+    }
+  }
+
+  /**
+   * Collects the annotated fields and getter methods, starting with the topmost superclass. A
+   * getter annotated in a subclass replaces an annotated getter with the same name of a superclass.
+   */
+  private static List<AccessibleObject> annotatedMembers(final Class<?> type) {
+    List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+    for (Class<?> current = type; current != null && current != Object.class;
+        current = current.getSuperclass()) {
+      hierarchy.add(0, current);
+    }
+
+    List<AccessibleObject> members = new ArrayList<AccessibleObject>();
+    Map<String, Integer> getterPositions = new HashMap<String, Integer>();
+    for (Class<?> current : hierarchy) {
+      for (Field field : current.getDeclaredFields()) {
+        if (isAnnotated(field)) {
+          members.add(field);
+        }
+      }
+      for (Method method : current.getDeclaredMethods()) {
+        if (!isAnnotated(method) || !isGetter(method)) {
+          continue;
+        }
+        Integer position = getterPositions.get(method.getName());
+        if (position == null) {
+          getterPositions.put(method.getName(), members.size());
+          members.add(method);
+        } else {
+          members.set(position, method);
+        }
+      }
+    }
+    return members;
+  }
+
+  private static boolean isAnnotated(final AccessibleObject member) {
+    return member.isAnnotationPresent(StartDate.class) || member.isAnnotationPresent(EndDate.class);
+  }
+
+  private static boolean isGetter(final Method method) {
+    return method.getParameterTypes().length == 0 && method.getReturnType() != void.class
+        && !Modifier.isStatic(method.getModifiers()) && !method.isBridge()
+        && !method.isSynthetic();
+  }
+
+  /**
+   * Returns the cached plan of the given class, compiling it on first use.
+   * 
+   * @param type
+   *          the class of the validated instance
+   * @return the plan of the class, never null
+   */
+  static DateRangePlan forClass(final Class<?> type) {
+    return CACHE.get(type);
+  }
+
+  /**
+   * Resolves a plan which reads the members of the given class with reflection, even if a
+   * {@link CompiledDateRange} was generated for it. The plan is not cached; it is used to check
+   * that generated validators behave exactly like the reflective plan.
+   * 
+   * @param type
+   *          the class of the validated instance
+   * @return a new reflective plan of the class
+   */
+  static DateRangePlan reflective(final Class<?> type) {
+    return new DateRangePlan(type);
+  }
+
+  /**
+   * @return the number of ranges which are validated
+   */
+  int size() {
+    return compiled != null ? compiled.size() : startDates.length;
+  }
+
+  /**
+   * @return true if the plan delegates to a {@link CompiledDateRange}
+   */
+  boolean isCompiled() {
+    return compiled != null;
+  }
+
+  /**
+   * @param instance
+   *          an instance of the class this plan was compiled for
+   * @return true if all ranges of the instance are valid
+   */
+  boolean isValid(final Object instance) {
+    if (compiled != null) {
+      return compiled.isValid(instance);
+    }
+    for (int slot = 0; slot < startDates.length; slot++) {
+      if (!isValid(slot, instance)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isValid(final int slot, final Object instance) {
+    AccessibleObject[] preceding = precedingEndDates[slot];
+    for (int i = 0; i < preceding.length; i++) {
+      if (get(preceding[i], instance) != null) {
+        return true;
+      }
+    }
+
+    Object startDate = get(startDates[slot], instance);
+    if (startDate == null) {
+      return true;
+    }
+    Object endDate = get(endDates[slot], instance);
+    if (endDate == null) {
+      return true;
+    }
+    return DateRangeValidator.isValidRange(DateValues.toEpochMillis(startDate),
+        DateValues.toEpochMillis(endDate), minimumDaysRanges[slot], allowedDayRanges[slot]);
+  }
+
+  private static Object get(final AccessibleObject member, final Object instance) {
+    try {
+      if (member instanceof Field) {
+        return ((Field) member).get(instance);
+      }
+      return ((Method) member).invoke(instance);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("This should never happen. If so, please report a bug!", e);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException(member + " threw a checked exception.", e.getCause());
+    }
+  }
+}
@@ -19,15 +19,6 @@
 
 package com.vcollaborate.validation.constraints.daterange;
 
-import org.joda.time.DateTime;
-import org.joda.time.Duration;
-
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 
@@ -47,74 +38,7 @@ public class DateRangeValidator implements ConstraintValidator<DateRange, Object
    *      javax.validation.ConstraintValidatorContext)
    */
   public final boolean isValid(final Object instance, final ConstraintValidatorContext ctx) {
-    List<Field> startDateFields = new ArrayList<Field>();
-    List<Field> endDateFields = new ArrayList<Field>();
-
-    annotatedFields(instance, startDateFields, endDateFields);
-
-    if (startDateFields.isEmpty() || endDateFields.isEmpty()) {
-      return true;
-    }
-
-    HashMap<Integer, Interval> intervals = new HashMap<Integer, Interval>();
-
-    try {
-      for (Field field : startDateFields) {
-        int idAnnotated = idFromStartDate(field);
-        intervals.put(idAnnotated, new Interval(calendarInstanceFromField(instance, field)));
-      }
-
-      for (Field field : endDateFields) {
-        int idAnnotated = idFromEndDate(field);
-        long expectedInterval = field.getAnnotation(EndDate.class).minimumDaysRange();
-        long[] allowedRanges = field.getAnnotation(EndDate.class).allowedDayRanges();
-        Interval intervalWithStartDate = intervals.get(idAnnotated);
-
-        intervalWithStartDate.intervalLimitInformation(calendarInstanceFromField(instance, field),
-            expectedInterval, allowedRanges);
-      }
-    } catch (IllegalAccessException e) {
-      throw new RuntimeException("This should never happen. If so, please report a bug!", e);
-    }
-
-    for (Interval interval : intervals.values()) {
-      if (!interval.isValid()) {
-        return false;
-      }
-    }
-
-    return true;
-  }
-
-  private void annotatedFields(final Object instance, final List<Field> startDateFields,
-      final List<Field> endDateFields) {
-    Field[] allModelFields = instance.getClass().getDeclaredFields();
-    for (Field field : allModelFields) {
-      if (hasAnnotation(field, StartDate.class)) {
-        startDateFields.add(field);
-      }
-      if (hasAnnotation(field, EndDate.class)) {
-        endDateFields.add(field);
-      }
-    }
-  }
-
-  private int idFromStartDate(final Field field) {
-    return field.getAnnotation(StartDate.class).id();
-  }
-
-  private int idFromEndDate(final Field field) {
-    return field.getAnnotation(EndDate.class).id();
-  }
-
-  private Object calendarInstanceFromField(final Object instance, final Field field)
-      throws IllegalAccessException {
-    field.setAccessible(true);
-    return field.get(instance);
-  }
-
-  private boolean hasAnnotation(final Field field, final Class<? extends Annotation> annotation) {
-    return field.getAnnotation(annotation) != null;
+    return DateRangePlan.forClass(instance.getClass()).isValid(instance);
   }
 
   /**
@@ -126,81 +50,40 @@ public class DateRangeValidator implements ConstraintValidator<DateRange, Object
 
   }
 
-  private class Interval {
-    private DateTime startDate;
-    private DateTime endDate;
-    private long expectedDaysInterval;
-    private long[] allowedRanges = {};
-    private boolean duplicatedEndDate;
-
-    /**
-     * 
-     * @param startDate
-     *          the lower range boundary
-     */
-    public Interval(final Object startDate) {
-      if (startDate != null) {
-        this.startDate = new DateTime(startDate);
-      }
-    }
-
-    /**
-     * 
-     * @return true if the expected minimum range is lower than the exact range or the exact
-     *         interval is contained in the list of allowed ranges or one of boundaries is null or
-     *         the end date can't be determined otherwise false
-     */
-    public boolean isValid() {
-      if (duplicatedEndDate || endDate == null || startDate == null) {
-        return true;
-      }
-      Duration duration = new Duration(startDate, endDate);
-      if(duration.getMillis() < 0) return false;
-
-      // Rounding fixes #1
-      long durationInDays = Math.round(duration.getMillis() / MILLILSPERDAY);
-
-      if (this.allowedRanges.length == 0) {
-        return durationInDays >= expectedDaysInterval;
-      } else {
-        for (int i = 0; i < this.allowedRanges.length; i++) {
-          if (this.allowedRanges[i] == durationInDays) {
-            return true;
-          }
-        }
-        return false;
-      }
+  /**
+   * If allowedDayRanges is empty, minimumDaysRange will be used, otherwise the information in
+   * allowedDayRanges, but not both.
+   * 
+   * @param startMillis
+   *          the lower range boundary in milliseconds since the epoch
+   * @param endMillis
+   *          the upper range boundary in milliseconds since the epoch
+   * @param minimumDaysRange
+   *          the minimum range
+   * @param allowedDayRanges
+   *          an empty array or a list of allowed ranges
+   * @return true if the expected minimum range is lower than the exact range or the exact interval
+   *         is contained in the list of allowed ranges otherwise false
+   */
+  static boolean isValidRange(final long startMillis, final long endMillis,
+      final long minimumDaysRange, final long[] allowedDayRanges) {
+    long durationInMillis = endMillis - startMillis;
+    if (durationInMillis < 0) {
+      return false;
     }
 
-    /**
-     * Writes the variables needed to determine if an interval is valid or not. Call this method for
-     * each upper boundary.
-     * 
-     * If allowedRanges is empty, expectedDaysInterval will be used, otherwise the information in
-     * allowedRanges, but not both.
-     * 
-     * @param endDate
-     *          the upper boundary
-     * @param expectedDaysInterval
-     *          the minimum range
-     * @param allowedRanges
-     *          an empty array or a list of allowed ranges
-     */
-    public void intervalLimitInformation(final Object endDate, final long expectedDaysInterval,
-        final long[] allowedRanges) {
+    // Rounding fixes #1
+    long durationInDays = Math.round(durationInMillis / MILLILSPERDAY);
 
-      if (this.endDate == null) {
-        if (endDate != null) {
-          this.endDate = new DateTime(endDate);
-        }
-        if (allowedRanges.length == 0) {
-          this.expectedDaysInterval = expectedDaysInterval;
-        } else {
-          this.allowedRanges = allowedRanges;
+    if (allowedDayRanges.length == 0) {
+      return durationInDays >= minimumDaysRange;
+    } else {
+      for (int i = 0; i < allowedDayRanges.length; i++) {
+        if (allowedDayRanges[i] == durationInDays) {
+          return true;
         }
-      } else {
-        duplicatedEndDate = true;
       }
+      return false;
     }
   }
 }
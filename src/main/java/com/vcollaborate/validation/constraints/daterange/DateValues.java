@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.daterange;
+
+import com.vcollaborate.validation.constraints.ValidationClock;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Converts the values of {@link StartDate} and {@link EndDate} fields into milliseconds since the
+ * epoch, with the same conversion as {@link ValidationClock#toEpochMillis(Object)}.
+ * 
+ * {@link LocalDate} and {@link LocalDateTime} values have no time zone. They are placed on the UTC
+ * time line, so the range between two local values is measured in local days without daylight
+ * saving shifts. Local and zoned values should therefore not be mixed within one range.
+ * 
+ * @author Christian Sterzl
+ */
+final class DateValues {
+
+  private DateValues() {
+  }
+
+  /**
+   * @param value
+   *          a non null date value
+   * @return the milliseconds since 1970-01-01T00:00:00Z
+   * @throws IllegalArgumentException
+   *           if joda-time can't convert the value
+   */
+  static long toEpochMillis(final Object value) {
+    return ValidationClock.toEpochMillis(value);
+  }
+}
@@ -27,7 +27,7 @@ import java.lang.annotation.Target;
 /**
  * @author Christian Sterzl
  */
-@Target(ElementType.FIELD)
+@Target({ ElementType.FIELD, ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 public @interface EndDate {
 
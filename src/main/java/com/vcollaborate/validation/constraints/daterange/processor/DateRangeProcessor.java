@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.daterange.processor;
+
+import com.vcollaborate.validation.constraints.daterange.CompiledDateRange;
+import com.vcollaborate.validation.constraints.daterange.DateRange;
+import com.vcollaborate.validation.constraints.daterange.EndDate;
+import com.vcollaborate.validation.constraints.daterange.StartDate;
+import com.vcollaborate.validation.constraints.nested.Nested;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a {@link CompiledDateRange} for every class annotated with {@link DateRange}, which
+ * reads its {@link StartDate} and {@link EndDate} fields and getters directly.
+ * 
+ * The generated validator is placed in the package of the annotated class, so it can only be
+ * generated if the class and all its annotated members are accessible from there, i.e. neither
+ * private nor inherited from a superclass of another package unless public, and if no annotated
+ * getter declares exceptions. Otherwise nothing is generated and the ranges are validated through
+ * reflection at runtime.
+ * 
+ * Additionally the reflection metadata needed by a GraalVM native image is written to
+ * {@code META-INF/native-image/validation.constraints/generated/reflect-config.json}. It registers
+ * the generated validators, and the classes using {@link DateRange}, {@link StartDate},
+ * {@link EndDate} and {@link Nested} as well as the types validated by {@link Nested}, including
+ * their superclasses. The directory below {@code META-INF/native-image} can be set with the
+ * processor option {@value #NATIVE_IMAGE_DIRECTORY}. An existing config in the class output, e.g.
+ * of an earlier incremental build, is merged, so entries of classes which are deleted or no longer
+ * annotated are only dropped by a full build.
+ * 
+ * The processor is opt-in: it is only registered in {@code META-INF/services} of the jar with the
+ * classifier {@code processor}, which is meant for the annotation processor path, e.g.
+ * {@code annotationProcessorPaths} of the maven-compiler-plugin. It does not claim the annotations
+ * it supports, so other processors still see them.
+ * 
+ * @author Christian Sterzl
+ * @since 1.3.1
+ */
+@SupportedAnnotationTypes({ "com.vcollaborate.validation.constraints.daterange.DateRange",
+    "com.vcollaborate.validation.constraints.daterange.StartDate",
+    "com.vcollaborate.validation.constraints.daterange.EndDate",
+    "com.vcollaborate.validation.constraints.nested.Nested" })
+@SupportedOptions(DateRangeProcessor.NATIVE_IMAGE_DIRECTORY)
+public class DateRangeProcessor extends AbstractProcessor {
+
+  /**
+   * The processor option overriding the directory of the reflection metadata below
+   * {@code META-INF/native-image}.
+   */
+  public static final String NATIVE_IMAGE_DIRECTORY = "validationconstraints.nativeImageDirectory";
+
+  /** The default directory of the reflection metadata below {@code META-INF/native-image}. */
+  private static final String DEFAULT_NATIVE_IMAGE_DIRECTORY = "validation.constraints/generated";
+
+  private final ReflectionConfig reflectionConfig = new ReflectionConfig();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations,
+      final RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver()) {
+      writeReflectionConfig();
+      return false;
+    }
+    for (Element element : roundEnv.getElementsAnnotatedWith(DateRange.class)) {
+      if (element.getKind() != ElementKind.CLASS) {
+        continue;
+      }
+      TypeElement type = (TypeElement) element;
+      registerHierarchy(type);
+      DateRangeSource source = DateRangeSource.of(type, processingEnv.getElementUtils(),
+          processingEnv.getTypeUtils());
+      if (source != null) {
+        write(type, source);
+        reflectionConfig.registerConstructor(source.getQualifiedName());
+      }
+    }
+    for (Element element : roundEnv.getElementsAnnotatedWith(StartDate.class)) {
+      registerHierarchy(element.getEnclosingElement());
+    }
+    for (Element element : roundEnv.getElementsAnnotatedWith(EndDate.class)) {
+      registerHierarchy(element.getEnclosingElement());
+    }
+    for (Element element : roundEnv.getElementsAnnotatedWith(Nested.class)) {
+      registerHierarchy(element.getEnclosingElement());
+      registerNestedTypes(element);
+    }
+    return false;
+  }
+
+  private void write(final TypeElement type, final DateRangeSource source) {
+    try {
+      JavaFileObject file =
+          processingEnv.getFiler().createSourceFile(source.getQualifiedName(), type);
+      Writer writer = file.openWriter();
+      try {
+        writer.write(source.toString());
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Could not write " + source.getQualifiedName() + ": " + e.getMessage(), type);
+    }
+  }
+
+  /**
+   * Registers the values of {@link Nested#value()} and {@link Nested#types()}, which are read
+   * through annotation mirrors as the classes are not loaded during compilation.
+   */
+  private void registerNestedTypes(final Element member) {
+    for (AnnotationMirror mirror : member.getAnnotationMirrors()) {
+      TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+      if (!annotation.getQualifiedName().contentEquals(Nested.class.getName())) {
+        continue;
+      }
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror
+          .getElementValues().entrySet()) {
+        if (entry.getKey().getSimpleName().contentEquals("value")
+            || entry.getKey().getSimpleName().contentEquals("types")) {
+          registerNestedType(entry.getValue().getValue());
+        }
+      }
+    }
+  }
+
+  private void registerNestedType(final Object value) {
+    if (value instanceof List) {
+      for (Object element : (List<?>) value) {
+        registerNestedType(((AnnotationValue) element).getValue());
+      }
+    } else if (value instanceof DeclaredType) {
+      registerHierarchy(((DeclaredType) value).asElement());
+    }
+  }
+
+  /**
+   * Registers a class and all its superclasses for introspection.
+   */
+  private void registerHierarchy(final Element element) {
+    if (!(element instanceof TypeElement)) {
+      return;
+    }
+    for (TypeElement current = (TypeElement) element; current != null
+        && !current.getQualifiedName().contentEquals(Object.class.getName());
+        current = superclass(current)) {
+      reflectionConfig.registerIntrospection(
+          processingEnv.getElementUtils().getBinaryName(current).toString());
+    }
+  }
+
+  private static TypeElement superclass(final TypeElement type) {
+    if (type.getSuperclass().getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    return (TypeElement) ((DeclaredType) type.getSuperclass()).asElement();
+  }
+
+  private void writeReflectionConfig() {
+    if (reflectionConfig.isEmpty()) {
+      return;
+    }
+    String directory = processingEnv.getOptions().get(NATIVE_IMAGE_DIRECTORY);
+    if (directory == null) {
+      directory = DEFAULT_NATIVE_IMAGE_DIRECTORY;
+    }
+    String name = "META-INF/native-image/" + directory + "/reflect-config.json";
+    try {
+      reflectionConfig.merge(processingEnv.getFiler()
+          .getResource(StandardLocation.CLASS_OUTPUT, "", name).getCharContent(true));
+    } catch (IOException e) {
+      // There is no earlier config.
+    }
+    try {
+      FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT,
+          "", name);
+      Writer writer = file.openWriter();
+      try {
+        writer.write(reflectionConfig.toString());
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Could not write " + name + ": " + e.getMessage());
+    }
+  }
+}
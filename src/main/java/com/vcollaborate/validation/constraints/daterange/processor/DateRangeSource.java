@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.daterange.processor;
+
+import com.vcollaborate.validation.constraints.daterange.CompiledDateRange;
+import com.vcollaborate.validation.constraints.daterange.EndDate;
+import com.vcollaborate.validation.constraints.daterange.StartDate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * The source code of the {@link CompiledDateRange} of a single class. The members and ranges are
+ * resolved exactly like the runtime plan does through reflection: fields and getters of the
+ * topmost superclass first, a getter of a subclass replacing a superclass getter with the same
+ * name, the last start date of an id winning and preceding end dates of an id disabling the range
+ * if not null.
+ * 
+ * @author Christian Sterzl
+ * @since 1.3.1
+ */
+final class DateRangeSource {
+
+  private final Elements elements;
+  private final Types types;
+  private final TypeElement type;
+  private final PackageElement packageElement;
+  private final String simpleName;
+
+  private final List<Element> startDates = new ArrayList<Element>();
+  private final List<Element> endDates = new ArrayList<Element>();
+  private final List<List<Element>> precedingEndDates = new ArrayList<List<Element>>();
+  private final List<EndDate> endDateAnnotations = new ArrayList<EndDate>();
+
+  private DateRangeSource(final TypeElement type, final Elements elements, final Types types) {
+    this.elements = elements;
+    this.types = types;
+    this.type = type;
+    this.packageElement = elements.getPackageOf(type);
+    String binaryName = elements.getBinaryName(type).toString();
+    this.simpleName = packageElement.isUnnamed() ? binaryName
+        : binaryName.substring(packageElement.getQualifiedName().length() + 1);
+  }
+
+  /**
+   * @return the source of the validator of the given class, or null if it can not be generated
+   */
+  static DateRangeSource of(final TypeElement type, final Elements elements,
+      final Types types) {
+    DateRangeSource source = new DateRangeSource(type, elements, types);
+    return source.resolve() ? source : null;
+  }
+
+  /**
+   * @return the fully qualified name of the validator
+   */
+  String getQualifiedName() {
+    String name = simpleName + CompiledDateRange.CLASS_NAME_SUFFIX;
+    return packageElement.isUnnamed() ? name : packageElement.getQualifiedName() + "." + name;
+  }
+
+  private boolean resolve() {
+    if (!isAccessibleType(type)) {
+      return false;
+    }
+    Map<Integer, Element> startDatesById = new TreeMap<Integer, Element>();
+    Map<Integer, List<Element>> endDatesById = new TreeMap<Integer, List<Element>>();
+    Map<Integer, EndDate> lastEndDateById = new TreeMap<Integer, EndDate>();
+
+    for (Element member : annotatedMembers()) {
+      if (!isAccessibleMember(member)
+          || !isAccessibleType((TypeElement) member.getEnclosingElement())
+          || declaresExceptions(member)) {
+        return false;
+      }
+      StartDate startDate = member.getAnnotation(StartDate.class);
+      EndDate endDate = member.getAnnotation(EndDate.class);
+      if (startDate != null) {
+        startDatesById.put(startDate.id(), member);
+      }
+      if (endDate != null) {
+        List<Element> members = endDatesById.get(endDate.id());
+        if (members == null) {
+          members = new ArrayList<Element>();
+          endDatesById.put(endDate.id(), members);
+        }
+        members.add(member);
+        lastEndDateById.put(endDate.id(), endDate);
+      }
+    }
+
+    startDatesById.keySet().retainAll(endDatesById.keySet());
+    for (Map.Entry<Integer, Element> entry : startDatesById.entrySet()) {
+      List<Element> members = endDatesById.get(entry.getKey());
+      int last = members.size() - 1;
+      startDates.add(entry.getValue());
+      endDates.add(members.get(last));
+      precedingEndDates.add(members.subList(0, last));
+      endDateAnnotations.add(lastEndDateById.get(entry.getKey()));
+    }
+    return true;
+  }
+
+  private List<Element> annotatedMembers() {
+    List<TypeElement> hierarchy = new ArrayList<TypeElement>();
+    for (TypeElement current = type; current != null
+        && !current.getQualifiedName().contentEquals(Object.class.getName());
+        current = superclass(current)) {
+      hierarchy.add(0, current);
+    }
+
+    List<Element> members = new ArrayList<Element>();
+    Map<String, Integer> getterPositions = new HashMap<String, Integer>();
+    for (TypeElement current : hierarchy) {
+      for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+        if (isAnnotated(field)) {
+          members.add(field);
+        }
+      }
+      for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+        if (!isAnnotated(method) || !isGetter(method)) {
+          continue;
+        }
+        String name = method.getSimpleName().toString();
+        Integer position = getterPositions.get(name);
+        if (position == null) {
+          getterPositions.put(name, members.size());
+          members.add(method);
+        } else {
+          members.set(position, method);
+        }
+      }
+    }
+    return members;
+  }
+
+  private static TypeElement superclass(final TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    return (TypeElement) ((DeclaredType) superclass).asElement();
+  }
+
+  private static boolean isAnnotated(final Element member) {
+    return member.getAnnotation(StartDate.class) != null
+        || member.getAnnotation(EndDate.class) != null;
+  }
+
+  private static boolean isGetter(final ExecutableElement method) {
+    return method.getParameters().isEmpty() && method.getReturnType().getKind() != TypeKind.VOID
+        && !method.getModifiers().contains(Modifier.STATIC);
+  }
+
+  /**
+   * @return true if the member is a getter declaring exceptions, which the generated
+   *         {@link CompiledDateRange#isValid(Object)} could not call without handling them
+   */
+  private static boolean declaresExceptions(final Element member) {
+    return member.getKind() == ElementKind.METHOD
+        && !((ExecutableElement) member).getThrownTypes().isEmpty();
+  }
+
+  /**
+   * @return true if the type and all its enclosing types can be referenced from the validator
+   */
+  private boolean isAccessibleType(final TypeElement element) {
+    for (Element current = element; current.getKind() != ElementKind.PACKAGE;
+        current = current.getEnclosingElement()) {
+      if (!(current instanceof TypeElement)
+          || ((TypeElement) current).getNestingKind() == NestingKind.LOCAL
+          || ((TypeElement) current).getNestingKind() == NestingKind.ANONYMOUS
+          || !isAccessibleMember(current)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isAccessibleMember(final Element element) {
+    Set<Modifier> modifiers = element.getModifiers();
+    if (modifiers.contains(Modifier.PRIVATE)) {
+      return false;
+    }
+    return modifiers.contains(Modifier.PUBLIC)
+        || elements.getPackageOf(element).equals(packageElement);
+  }
+
+  /**
+   * @return an expression reading the member of {@code instance}
+   */
+  private String read(final Element member) {
+    TypeElement declaring = (TypeElement) member.getEnclosingElement();
+    String name = member.getSimpleName().toString();
+    if (member.getKind() == ElementKind.METHOD) {
+      name += "()";
+    }
+    if (member.getModifiers().contains(Modifier.STATIC)) {
+      return typeName(declaring) + "." + name;
+    }
+    if (declaring.equals(type)) {
+      return "instance." + name;
+    }
+    return "((" + typeName(declaring) + ") instance)." + name;
+  }
+
+  private String typeName(final TypeElement element) {
+    return types.erasure(element.asType()).toString();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder source = new StringBuilder();
+    if (!packageElement.isUnnamed()) {
+      source.append("package ").append(packageElement.getQualifiedName()).append(";\n\n");
+    }
+    source.append("/**\n");
+    source.append(" * Validates the date ranges of {@link ").append(typeName(type)).append("}.\n");
+    source.append(" * Generated by ").append(DateRangeProcessor.class.getName())
+        .append(", do not edit.\n");
+    source.append(" */\n");
+    source.append("public final class ").append(simpleName)
+        .append(CompiledDateRange.CLASS_NAME_SUFFIX).append("\n");
+    source.append("    extends ").append(CompiledDateRange.class.getName()).append(" {\n");
+    for (int slot = 0; slot < startDates.size(); slot++) {
+      source.append("\n  private static final long[] ALLOWED_DAY_RANGES_").append(slot)
+          .append(" = {");
+      long[] allowedDayRanges = endDateAnnotations.get(slot).allowedDayRanges();
+      for (int i = 0; i < allowedDayRanges.length; i++) {
+        source.append(i == 0 ? " " : ", ").append(allowedDayRanges[i]).append('L');
+      }
+      source.append(allowedDayRanges.length == 0 ? "};\n" : " };\n");
+    }
+    source.append("\n  public ").append(simpleName).append(CompiledDateRange.CLASS_NAME_SUFFIX)
+        .append("() {\n");
+    source.append("    super(").append(startDates.size()).append(");\n");
+    source.append("  }\n\n");
+    source.append("  @Override\n");
+    source.append("  @SuppressWarnings(\"rawtypes\")\n");
+    source.append("  public boolean isValid(final Object value) {\n");
+    source.append("    ").append(typeName(type)).append(" instance = (").append(typeName(type))
+        .append(") value;\n");
+    for (int slot = 0; slot < startDates.size(); slot++) {
+      source.append("    if (");
+      for (Element preceding : precedingEndDates.get(slot)) {
+        source.append("isNull(").append(read(preceding)).append(")\n        && ");
+      }
+      source.append("!isValidRange(").append(read(startDates.get(slot))).append(", ")
+          .append(read(endDates.get(slot))).append(",\n        ")
+          .append(endDateAnnotations.get(slot).minimumDaysRange()).append("L, ALLOWED_DAY_RANGES_")
+          .append(slot).append(")) {\n");
+      source.append("      return false;\n");
+      source.append("    }\n");
+    }
+    source.append("    return true;\n");
+    source.append("  }\n");
+    source.append("}\n");
+    return source.toString();
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.daterange.processor;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The reflection metadata of a GraalVM native image ({@code reflect-config.json}) collected while
+ * processing annotations. Entries are sorted by class name, so the output is reproducible.
+ * 
+ * @author Christian Sterzl
+ * @since 1.3.1
+ */
+final class ReflectionConfig {
+
+  /** The class is instantiated through its public constructor without arguments only. */
+  private static final String CONSTRUCTOR =
+      "    \"methods\" : [ { \"name\" : \"<init>\", \"parameterTypes\" : [ ] } ]";
+
+  /** The class is introspected by the validation provider and the reflective validators. */
+  private static final String INTROSPECTION = "    \"allDeclaredConstructors\" : true,\n"
+      + "    \"allDeclaredMethods\" : true,\n"
+      + "    \"allDeclaredFields\" : true";
+
+  /** Matches the entries written by {@link #toString()}. */
+  private static final Pattern ENTRY = Pattern.compile(
+      "\\{\\s*\"name\" : \"([^\"]+)\",\\s*\"(allDeclaredConstructors|methods)\"");
+
+  private final Map<String, String> entries = new TreeMap<String, String>();
+
+  /**
+   * Registers all constructors, methods and fields of a class.
+   * 
+   * @param binaryName
+   *          the binary name of the class, e.g. {@code com.example.Booking$Stay}
+   */
+  void registerIntrospection(final String binaryName) {
+    entries.put(binaryName, INTROSPECTION);
+  }
+
+  /**
+   * Registers the public constructor without arguments of a class, unless the class is already
+   * registered for introspection.
+   * 
+   * @param binaryName
+   *          the binary name of the class
+   */
+  void registerConstructor(final String binaryName) {
+    if (!entries.containsKey(binaryName)) {
+      entries.put(binaryName, CONSTRUCTOR);
+    }
+  }
+
+  /**
+   * Adds the entries of a config written by an earlier compilation, e.g. of classes which are not
+   * recompiled by an incremental build. Classes registered by this compilation are kept as they
+   * are.
+   * 
+   * @param json
+   *          the content of the earlier config
+   */
+  void merge(final CharSequence json) {
+    Matcher matcher = ENTRY.matcher(json);
+    while (matcher.find()) {
+      String binaryName = matcher.group(1);
+      if (!entries.containsKey(binaryName)) {
+        entries.put(binaryName, matcher.group(2).equals("methods") ? CONSTRUCTOR : INTROSPECTION);
+      }
+    }
+  }
+
+  boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder json = new StringBuilder("[");
+    String separator = "\n";
+    for (Map.Entry<String, String> entry : entries.entrySet()) {
+      json.append(separator).append("  {\n");
+      json.append("    \"name\" : \"").append(entry.getKey()).append("\",\n");
+      json.append(entry.getValue()).append("\n  }");
+      separator = ",\n";
+    }
+    return json.append("\n]\n").toString();
+  }
+}
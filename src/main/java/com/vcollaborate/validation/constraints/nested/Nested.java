@@ -41,6 +41,46 @@ public @interface Nested {
 
   Class<? extends Payload>[] payload() default {};
 
+  /**
+   * The type the annotated object, or each of its elements, must be an instance of. Subclasses are
+   * accepted as well.
+   */
   Class<?> value();
 
+  /**
+   * Further types accepted besides {@link #value()}, including their subclasses.
+   * 
+   * @since 1.3.1
+   */
+  Class<?>[] types() default {};
+
+  /**
+   * Whether the elements of large collections are validated concurrently in the common
+   * {@link java.util.concurrent.ForkJoinPool}. The result is the same as with sequential
+   * validation, and the remaining elements are skipped as soon as one element is invalid.
+   * 
+   * @since 1.3.1
+   */
+  boolean parallel() default false;
+
+  /**
+   * The minimum size of a collection to be validated concurrently if {@link #parallel()} is set.
+   * Smaller collections are validated sequentially.
+   * 
+   * @since 1.3.1
+   */
+  int parallelThreshold() default 1024;
+
+  /**
+   * Whether the violations of the nested objects are reported instead of a single violation with
+   * {@link #message()}. They keep their interpolated messages, and their property paths are
+   * appended to the path of the annotated property, including the index of list elements. Objects
+   * not of an accepted type are reported with {@link #message()}.
+   * <p>
+   * All elements of a collection are validated then, instead of stopping at the first invalid one.
+   * 
+   * @since 1.3.1
+   */
+  boolean propagateViolations() default false;
+
 }
@@ -19,22 +19,120 @@
 
 package com.vcollaborate.validation.constraints.nested;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
+import javax.validation.ValidatorContext;
 import javax.validation.ValidatorFactory;
 
+/**
+ * Validates {@link Nested} constraints with a {@link javax.validation.Validator} of a
+ * {@link ValidatorFactory}, which is, in this order of precedence,
+ * <ol>
+ * <li>the factory passed to {@link #NestedValidator(ValidatorFactory)}, e.g. by a dependency
+ * injecting {@link javax.validation.ConstraintValidatorFactory},</li>
+ * <li>the factory registered with {@link #useValidatorFactory(ValidatorFactory)}, usually the one
+ * of the application, so the bean metadata is cached only once,</li>
+ * <li>a default factory, which is only built if neither of the above is present.</li>
+ * </ol>
+ * 
+ * Besides single objects, the elements of object arrays, {@link Iterable}s, {@link Iterator}s,
+ * {@link Spliterator}s and {@link Stream}s are validated. Iterators, spliterators and streams are
+ * consumed by the validation. Null elements are valid, and elements which are not instances of
+ * {@link Nested#value()} or one of {@link Nested#types()} are invalid.
+ * 
+ * The factory is bootstrapped lazily when the first {@link Nested} constraint is initialized, or
+ * explicitly by {@link #warmUp(Class...)}.
+ * 
+ * Unless the violations are propagated, see {@link Nested#propagateViolations()}, only the
+ * validity of nested objects matters. The validator is then switched to fail fast mode if the
+ * provider supports it, e.g. Hibernate Validator, so it stops at the first violation.
+ * 
+ * @author Christian Sterzl
+ */
 public class NestedValidator implements ConstraintValidator<Nested, Object> {
 
-  private Class<?> classToValidate;
+  private static final Logger LOGGER = Logger.getLogger(NestedValidator.class.getName());
+
+  private static volatile ValidatorFactory sharedFactory;
+
+  private static volatile ValidatorFactory defaultFactory;
+
+  private final ValidatorFactory factory;
+
+  private AcceptedTypes acceptedTypes;
+
+  private boolean parallel;
+
+  private int parallelThreshold;
+
+  private boolean propagateViolations;
 
-  private static ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
   private transient javax.validation.Validator validator;
 
+  /**
+   * Creates a validator using the registered or the default factory.
+   */
+  public NestedValidator() {
+    this(null);
+  }
+
+  /**
+   * Creates a validator using the given factory.
+   * 
+   * @param factory
+   *          the factory to get the nested {@link javax.validation.Validator} from, or null to use
+   *          the registered or the default factory
+   */
+  public NestedValidator(final ValidatorFactory factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Registers the factory nested validators are taken from, unless one is passed to
+   * {@link #NestedValidator(ValidatorFactory)}. Validators already initialized are not affected.
+   * 
+   * @param factory
+   *          the factory, or null to use the default factory
+   * @since 1.3.1
+   */
+  public static void useValidatorFactory(final ValidatorFactory factory) {
+    sharedFactory = factory;
+  }
+
+  /**
+   * Bootstraps the registered or default factory now instead of on first use, and builds the bean
+   * metadata of the given classes, e.g. while the application starts.
+   * 
+   * @param types
+   *          the classes validated by {@link Nested} constraints
+   * @since 1.3.1
+   */
+  public static void warmUp(final Class<?>... types) {
+    javax.validation.Validator warmUpValidator = getSharedFactory().getValidator();
+    for (Class<?> type : types) {
+      warmUpValidator.getConstraintsForClass(type);
+    }
+  }
+
   /**
    * {@inheritDoc}
    * 
@@ -42,8 +140,58 @@ public class NestedValidator implements ConstraintValidator<Nested, Object> {
    */
   @Override
   public final void initialize(final Nested constraintAnnotation) {
-    classToValidate = constraintAnnotation.value();
-    validator = factory.getValidator();
+    acceptedTypes = new AcceptedTypes(constraintAnnotation.value(), constraintAnnotation.types());
+    parallel = constraintAnnotation.parallel();
+    parallelThreshold = constraintAnnotation.parallelThreshold();
+    propagateViolations = constraintAnnotation.propagateViolations();
+    if (propagateViolations) {
+      validator = getValidatorFactory().getValidator();
+    } else {
+      validator = getFailFastValidator(getValidatorFactory());
+    }
+  }
+
+  /**
+   * Returns a validator of the given factory, which stops at the first violation if the context of
+   * the factory has a {@code failFast(boolean)} method like the one of Hibernate Validator.
+   */
+  static javax.validation.Validator getFailFastValidator(final ValidatorFactory factory) {
+    ValidatorContext context = factory.usingContext();
+    try {
+      Method failFast = context.getClass().getMethod("failFast", boolean.class);
+      failFast.invoke(context, true);
+    } catch (ReflectiveOperationException e) {
+      LOGGER.log(Level.FINE, "The validator context " + context.getClass().getName()
+          + " has no fail fast mode, so every constraint is validated.", e);
+    }
+    return context.getValidator();
+  }
+
+  private ValidatorFactory getValidatorFactory() {
+    return factory != null ? factory : getSharedFactory();
+  }
+
+  private static ValidatorFactory getSharedFactory() {
+    ValidatorFactory shared = sharedFactory;
+    return shared != null ? shared : getDefaultFactory();
+  }
+
+  /**
+   * Builds the default factory once. If the bootstrap fails, e.g. because no provider is available
+   * yet, it is retried on the next call.
+   */
+  private static ValidatorFactory getDefaultFactory() {
+    ValidatorFactory result = defaultFactory;
+    if (result == null) {
+      synchronized (NestedValidator.class) {
+        result = defaultFactory;
+        if (result == null) {
+          result = Validation.buildDefaultValidatorFactory();
+          defaultFactory = result;
+        }
+      }
+    }
+    return result;
   }
 
   /**
@@ -54,10 +202,18 @@ public class NestedValidator implements ConstraintValidator<Nested, Object> {
    */
   @Override
   public final boolean isValid(final Object value, final ConstraintValidatorContext context) {
+    Object values = value instanceof Object[] ? Arrays.asList((Object[]) value) : value;
+    if (propagateViolations && context != null) {
+      return isValidPropagating(values, context);
+    }
+    if (isParallel(values)) {
+      return isValidParallel((Collection<?>) values);
+    }
+
     boolean valid = true;
 
-    if (value instanceof Iterable) {
-      Iterator<?> iterator = ((Iterable<?>) value).iterator();
+    Iterator<?> iterator = getIterator(values);
+    if (iterator != null) {
       while (iterator.hasNext()) {
         Object validatee = iterator.next();
         valid = valid && validate(validatee);
@@ -66,18 +222,179 @@ public class NestedValidator implements ConstraintValidator<Nested, Object> {
         }
       }
     } else {
-      valid = validate(value);
+      valid = validate(values);
     }
 
     return valid;
   }
 
+  /**
+   * Returns an iterator over the elements of {@code values}, or null if it is a single object. The
+   * elements of iterators, spliterators and streams are consumed lazily, so they are never
+   * buffered.
+   */
+  private static Iterator<?> getIterator(final Object values) {
+    if (values instanceof Iterable) {
+      return ((Iterable<?>) values).iterator();
+    } else if (values instanceof Iterator) {
+      return (Iterator<?>) values;
+    } else if (values instanceof Spliterator) {
+      return Spliterators.iterator((Spliterator<?>) values);
+    } else if (values instanceof Stream) {
+      return ((Stream<?>) values).iterator();
+    }
+    return null;
+  }
+
+  private boolean isParallel(final Object value) {
+    return parallel && value instanceof Collection
+        && ((Collection<?>) value).size() >= parallelThreshold;
+  }
+
+  private boolean isValidParallel(final Collection<?> values) {
+    AtomicBoolean invalid = new AtomicBoolean();
+    invokeParallel(values, invalid, null);
+    return !invalid.get();
+  }
+
+  /**
+   * Validates every nested object and reports the violations of all of them, in the order of the
+   * elements.
+   */
+  @SuppressWarnings("unchecked")
+  private boolean isValidPropagating(final Object value, final ConstraintValidatorContext context) {
+    Iterator<?> iterator = getIterator(value);
+    if (iterator == null) {
+      return NestedViolations.report(context, getViolations(value), false, null);
+    }
+    boolean indexed = value instanceof List;
+    boolean valid = true;
+    if (isParallel(value)) {
+      Object[] results = new Object[((Collection<?>) value).size()];
+      invokeParallel((Collection<?>) value, null, results);
+      for (int i = 0; i < results.length; i++) {
+        valid &= NestedViolations.report(context, (Set<ConstraintViolation<Object>>) results[i],
+            true, indexed ? Integer.valueOf(i) : null);
+      }
+    } else {
+      for (int index = 0; iterator.hasNext(); index++) {
+        valid &= NestedViolations.report(context, getViolations(iterator.next()), true,
+            indexed ? Integer.valueOf(index) : null);
+      }
+    }
+    return valid;
+  }
+
+  /**
+   * Validates the elements of {@code values} in the common {@link ForkJoinPool}.
+   * 
+   * @param invalid
+   *          set as soon as one element is invalid, or null if there are {@code results}
+   * @param results
+   *          receives the result of {@link #getViolations(Object)} for every element, or null
+   */
+  private void invokeParallel(final Collection<?> values, final AtomicBoolean invalid,
+      final Object[] results) {
+    List<?> list;
+    if (values instanceof List && values instanceof RandomAccess) {
+      list = (List<?>) values;
+    } else {
+      list = Arrays.asList(values.toArray());
+    }
+    int chunkSize = Math.max(1, list.size() / (ForkJoinPool.getCommonPoolParallelism() * 4));
+    ForkJoinPool.commonPool().invoke(new ParallelValidation(list, 0, list.size(), chunkSize,
+        invalid, results));
+  }
+
   private boolean validate(final Object validatee) {
-    if (validatee.getClass().isAssignableFrom(classToValidate)) {
-      Set<ConstraintViolation<Object>> violations = validator.validate(validatee);
-      return violations.size() == 0;
+    Set<ConstraintViolation<Object>> violations = getViolations(validatee);
+    return violations != null && violations.isEmpty();
+  }
+
+  /**
+   * Returns the violations of {@code validatee}, none if it is null, or null if it is not of one of
+   * the validated types.
+   */
+  private Set<ConstraintViolation<Object>> getViolations(final Object validatee) {
+    if (validatee == null) {
+      return Collections.emptySet();
+    }
+    if (acceptedTypes.get(validatee.getClass())) {
+      return validator.validate(validatee);
     }
-    return false;
+    return null;
   }
 
+  /**
+   * Caches per runtime class whether it is a subtype of {@link Nested#value()} or of one of
+   * {@link Nested#types()}.
+   */
+  private static final class AcceptedTypes extends ClassValue<Boolean> {
+    private final Class<?>[] types;
+
+    AcceptedTypes(final Class<?> value, final Class<?>[] types) {
+      this.types = Arrays.copyOf(types, types.length + 1);
+      this.types[types.length] = value;
+    }
+
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      for (Class<?> accepted : types) {
+        if (accepted.isAssignableFrom(type)) {
+          return Boolean.TRUE;
+        }
+      }
+      return Boolean.FALSE;
+    }
+  }
+
+  /**
+   * Validates the elements from {@code from} (inclusive) to {@code to} (exclusive). Without
+   * {@code results} it sets {@code invalid} as soon as one is invalid, which stops all other tasks,
+   * otherwise every element is validated and its violations are stored at its index.
+   */
+  private final class ParallelValidation extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<?> values;
+    private final int from;
+    private final int to;
+    private final int chunkSize;
+    private final AtomicBoolean invalid;
+    private final Object[] results;
+
+    ParallelValidation(final List<?> values, final int from, final int to, final int chunkSize,
+        final AtomicBoolean invalid, final Object[] results) {
+      this.values = values;
+      this.from = from;
+      this.to = to;
+      this.chunkSize = chunkSize;
+      this.invalid = invalid;
+      this.results = results;
+    }
+
+    @Override
+    protected void compute() {
+      if (results == null && invalid.get()) {
+        return;
+      }
+      if (to - from > chunkSize) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new ParallelValidation(values, from, middle, chunkSize, invalid, results),
+            new ParallelValidation(values, middle, to, chunkSize, invalid, results));
+        return;
+      }
+      if (results != null) {
+        for (int i = from; i < to; i++) {
+          results[i] = getViolations(values.get(i));
+        }
+        return;
+      }
+      for (int i = from; i < to && !invalid.get(); i++) {
+        if (!validate(values.get(i))) {
+          invalid.set(true);
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.nested;
+
+import java.util.Set;
+
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.ConstraintValidatorContext.ConstraintViolationBuilder;
+import javax.validation.ConstraintViolation;
+import javax.validation.ElementKind;
+import javax.validation.Path;
+
+/**
+ * Reports the violations of a nested object to the {@link ConstraintValidatorContext} of the
+ * {@link Nested} constraint, with their property paths below the annotated property, see
+ * {@link Nested#propagateViolations()}.
+ * 
+ * @author Christian Sterzl
+ * @since 1.3.1
+ */
+final class NestedViolations {
+
+  private NestedViolations() {
+  }
+
+  /**
+   * Reports the violations of one nested object.
+   * 
+   * @param context
+   *          the context of the {@link Nested} constraint
+   * @param violations
+   *          the violations of the nested object, or null if it is not of the validated type, which
+   *          is reported with the default message of the constraint
+   * @param inIterable
+   *          whether the nested object is an element of an iterable
+   * @param index
+   *          the index of the element, or null if the iterable is not indexed
+   * @return true if nothing was reported
+   */
+  static boolean report(final ConstraintValidatorContext context,
+      final Set<ConstraintViolation<Object>> violations, final boolean inIterable,
+      final Integer index) {
+    if (violations != null && violations.isEmpty()) {
+      return true;
+    }
+    context.disableDefaultConstraintViolation();
+    if (violations == null) {
+      String template = context.getDefaultConstraintMessageTemplate();
+      new PathBuilder(context.buildConstraintViolationWithTemplate(template)).addBeanNode(
+          inIterable, index, null);
+      return false;
+    }
+    for (ConstraintViolation<Object> violation : violations) {
+      PathBuilder path = new PathBuilder(
+          context.buildConstraintViolationWithTemplate(escape(violation.getMessage())));
+      boolean first = true;
+      for (Path.Node node : violation.getPropertyPath()) {
+        // The first node is a property of the nested object, so it is in the iterable if that is.
+        boolean nodeInIterable = first ? inIterable : node.isInIterable();
+        Integer nodeIndex = first ? index : node.getIndex();
+        Object nodeKey = first ? null : node.getKey();
+        first = false;
+        if (node.getKind() == ElementKind.BEAN) {
+          path.addBeanNode(nodeInIterable, nodeIndex, nodeKey);
+          break;
+        }
+        path.addPropertyNode(node.getName(), nodeInIterable, nodeIndex, nodeKey);
+      }
+      if (first) {
+        path.addBeanNode(inIterable, index, null);
+      }
+      path.addConstraintViolation();
+    }
+    return false;
+  }
+
+  /**
+   * Escapes an interpolated message, so it is not interpolated again as a message template.
+   */
+  static String escape(final String message) {
+    StringBuilder escaped = new StringBuilder(message.length() + 8);
+    for (int i = 0; i < message.length(); i++) {
+      char current = message.charAt(i);
+      if (current == '\\' || current == '{' || current == '}' || current == '$') {
+        escaped.append('\\');
+      }
+      escaped.append(current);
+    }
+    return escaped.toString();
+  }
+
+  /**
+   * Adds nodes to a {@link ConstraintViolationBuilder}, whose node builder interfaces have no
+   * common super type. Exactly one of the builder fields is set at a time.
+   */
+  private static final class PathBuilder {
+    private ConstraintViolationBuilder root;
+    private ConstraintViolationBuilder.NodeBuilderCustomizableContext customizable;
+    private ConstraintViolationBuilder.NodeContextBuilder iterable;
+    private ConstraintViolationBuilder.NodeBuilderDefinedContext defined;
+    private boolean added;
+
+    PathBuilder(final ConstraintViolationBuilder root) {
+      this.root = root;
+    }
+
+    void addPropertyNode(final String name, final boolean inIterable, final Integer index,
+        final Object key) {
+      ConstraintViolationBuilder.NodeBuilderCustomizableContext node;
+      if (root != null) {
+        node = root.addPropertyNode(name);
+      } else if (customizable != null) {
+        node = customizable.addPropertyNode(name);
+      } else if (iterable != null) {
+        node = iterable.addPropertyNode(name);
+      } else {
+        node = defined.addPropertyNode(name);
+      }
+      root = null;
+      customizable = null;
+      iterable = null;
+      defined = null;
+      if (!inIterable) {
+        customizable = node;
+      } else if (index != null) {
+        defined = node.inIterable().atIndex(index);
+      } else if (key != null) {
+        defined = node.inIterable().atKey(key);
+      } else {
+        iterable = node.inIterable();
+      }
+    }
+
+    /**
+     * Adds the leaf bean node and the violation. A bean node which is neither in an iterable nor
+     * below a property node is omitted, as the violation then belongs to the annotated property.
+     */
+    void addBeanNode(final boolean inIterable, final Integer index, final Object key) {
+      if (!inIterable && root != null) {
+        addConstraintViolation();
+        return;
+      }
+      ConstraintViolationBuilder.LeafNodeBuilderCustomizableContext node;
+      if (root != null) {
+        node = root.addBeanNode();
+      } else if (customizable != null) {
+        node = customizable.addBeanNode();
+      } else if (iterable != null) {
+        node = iterable.addBeanNode();
+      } else {
+        node = defined.addBeanNode();
+      }
+      added = true;
+      if (!inIterable) {
+        node.addConstraintViolation();
+        return;
+      }
+      ConstraintViolationBuilder.LeafNodeContextBuilder leaf = node.inIterable();
+      if (index != null) {
+        leaf.atIndex(index).addConstraintViolation();
+      } else if (key != null) {
+        leaf.atKey(key).addConstraintViolation();
+      } else {
+        leaf.addConstraintViolation();
+      }
+    }
+
+    /**
+     * Adds the violation, unless {@link #addBeanNode(boolean, Integer, Object)} already did.
+     */
+    void addConstraintViolation() {
+      if (added) {
+        return;
+      }
+      added = true;
+      if (root != null) {
+        root.addConstraintViolation();
+      } else if (customizable != null) {
+        customizable.addConstraintViolation();
+      } else if (iterable != null) {
+        iterable.addConstraintViolation();
+      } else {
+        defined.addConstraintViolation();
+      }
+    }
+  }
+}
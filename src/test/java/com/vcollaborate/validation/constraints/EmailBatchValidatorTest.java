@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+public class EmailBatchValidatorTest {
+
+  private static final String ALPHABET = "aZ09.@[]-~!\\ \"(1255.@\u00fc";
+
+  @Test
+  public void testValidate() {
+    EmailBatchValidator batchValidator = new EmailBatchValidator();
+    List<String> addresses = Arrays.asList("test@v-collaborate.com", "test@v-collaborate", null,
+        "", "test@m\u00fcller.de", "a@[127.0.0.1]", "a..b@c.d");
+
+    BitSet expected = new BitSet();
+    expected.set(0);
+    expected.set(2, 5);
+    expected.set(5);
+    Assert.assertEquals(expected, batchValidator.validate(addresses));
+    Assert.assertEquals(expected, batchValidator.validateParallel(addresses));
+    Assert.assertEquals(expected,
+        batchValidator.validateParallel(new LinkedList<String>(addresses)));
+  }
+
+  @Test
+  public void testValidateLines() {
+    EmailBatchValidator batchValidator = new EmailBatchValidator();
+
+    BitSet expected = new BitSet();
+    expected.set(0);
+    expected.set(2);
+    expected.set(3);
+    String lines = "a@b.c\r\nnot valid\n\nx@[1.2.3.4]";
+    Assert.assertEquals(expected, batchValidator.validateLines(lines));
+    Assert.assertEquals(expected, batchValidator.validateLines(lines + "\n"));
+    Assert.assertEquals(expected, batchValidator.validateLinesParallel(CharBuffer.wrap(lines)));
+    Assert.assertEquals(new BitSet(), batchValidator.validateLines(""));
+    Assert.assertEquals(BitSet.valueOf(new long[] { 1 }), batchValidator.validateLines("\n"));
+  }
+
+  @Test
+  public void testLargeBatches() {
+    Random random = new Random(42);
+    List<String> addresses = new ArrayList<String>();
+    StringBuilder lines = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      StringBuilder address = new StringBuilder();
+      int length = random.nextInt(16);
+      for (int j = 0; j < length; j++) {
+        address.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      }
+      addresses.add(address.toString());
+      lines.append(address).append('\n');
+    }
+
+    for (Email.Engine engine : Email.Engine.values()) {
+      EmailValidator validator = new EmailValidator();
+      validator.initialize(false, engine, 254);
+      BitSet expected = new BitSet();
+      for (int i = 0; i < addresses.size(); i++) {
+        expected.set(i, validator.isValid(addresses.get(i), null));
+      }
+
+      EmailBatchValidator batchValidator = new EmailBatchValidator(false, engine, 254);
+      Assert.assertEquals(expected, batchValidator.validate(addresses));
+      Assert.assertEquals(expected, batchValidator.validateParallel(addresses));
+      Assert.assertEquals(expected, batchValidator.validateLines(lines));
+      Assert.assertEquals(expected, batchValidator.validateLinesParallel(lines));
+    }
+  }
+}
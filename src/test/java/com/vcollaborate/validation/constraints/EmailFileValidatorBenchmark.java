@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Measures {@link EmailFileValidator} on a generated file of {@link #SIZE_MB} MiB, mostly valid
+ * addresses. The throughput in MiB/s is {@link #SIZE_MB} divided by the reported time in seconds.
+ * 
+ * Run with {@code mvn -Pbenchmark verify -Dbenchmark=EmailFileValidatorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailFileValidatorBenchmark {
+
+  private static final int SIZE_MB = 256;
+
+  private static final String[] DOMAINS = { "example.com", "mail.example.org",
+      "v-collaborate.com", "[127.0.0.1]", "sub.domain.co.uk" };
+
+  @Param({ "SCANNER", "REGEX" })
+  private Email.Engine engine;
+
+  private Path file;
+  private EmailFileValidator validator;
+  private long invalidLines;
+
+  @Setup
+  public void setUp() throws IOException {
+    validator = new EmailFileValidator(true, engine, 254);
+    file = Files.createTempFile("emails", ".txt");
+    Random random = new Random(42);
+    try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8),
+        1 << 20)) {
+      long size = 0;
+      while (size < SIZE_MB * 1024L * 1024L) {
+        StringBuilder address = new StringBuilder();
+        int length = 4 + random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+          address.append((char) ('a' + random.nextInt(26)));
+        }
+        if (random.nextInt(4) == 0) {
+          address.append(".last");
+        }
+        address.append('@').append(DOMAINS[random.nextInt(DOMAINS.length)]);
+        if (random.nextInt(50) == 0) {
+          address.append(' ');
+        }
+        if (random.nextInt(1000) == 0) {
+          address.setCharAt(1, '\u00fc');
+        }
+        address.append('\n');
+        writer.write(address.toString());
+        size += address.length();
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(file);
+  }
+
+  @Benchmark
+  public long validate() throws IOException {
+    return validator.validate(file, new LongConsumer() {
+      @Override
+      public void accept(final long offset) {
+        invalidLines++;
+      }
+    });
+  }
+}
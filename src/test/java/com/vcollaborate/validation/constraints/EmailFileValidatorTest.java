@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongConsumer;
+
+public class EmailFileValidatorTest {
+
+  private static final String ALPHABET = "aZ09.@[]-~!\\ \"(1255.@\u00fc\r";
+
+  @Test
+  public void testValidate() throws IOException {
+    String content = "a@b.c\r\nnot valid\n\ntest@m\u00fcller.de\nx@[1.2.3.4\n";
+    List<Long> invalid = validate(new EmailFileValidator(), content);
+
+    Assert.assertEquals(2, invalid.size());
+    Assert.assertEquals(Long.valueOf(7), invalid.get(0));
+    Assert.assertEquals(Long.valueOf(content.getBytes(StandardCharsets.UTF_8).length - 11),
+        invalid.get(1));
+  }
+
+  @Test
+  public void testLinesLongerThanWindow() throws IOException {
+    StringBuilder content = new StringBuilder("a@b.c\n");
+    for (int i = 0; i < 100; i++) {
+      content.append("a.");
+    }
+    content.append("a@b.c\nnot valid");
+
+    EmailFileValidator validator =
+        new EmailFileValidator(true, Email.Engine.SCANNER, Integer.MAX_VALUE, 16);
+    List<Long> invalid = validate(validator, content.toString());
+
+    Assert.assertEquals(1, invalid.size());
+    Assert.assertEquals(Long.valueOf(content.length() - 9), invalid.get(0));
+  }
+
+  /**
+   * Lines with more bytes than {@code maxLength} may still be valid if they contain multibyte
+   * characters, but longer ones are rejected before being mapped or decoded.
+   */
+  @Test
+  public void testMaxLengthOfNonAsciiLines() throws IOException {
+    StringBuilder content =
+        new StringBuilder("t@m\u00fc\u00fc\u00fc\u00fc\u00fc\u00fc\u00fc\u00fcller.de\n");
+    for (int i = 0; i < 1000; i++) {
+      content.append('\u00fc');
+    }
+    content.append("@b.c\n");
+
+    EmailFileValidator validator = new EmailFileValidator(true, Email.Engine.SCANNER, 20, 64);
+    List<Long> invalid = validate(validator, content.toString());
+
+    Assert.assertEquals(1, invalid.size());
+    Assert.assertEquals(Long.valueOf(27), invalid.get(0));
+  }
+
+  @Test
+  public void testRandomFiles() throws IOException {
+    Random random = new Random(42);
+    for (int windowSize : new int[] { 7, 64, 4096 }) {
+      List<String> addresses = new ArrayList<String>();
+      StringBuilder content = new StringBuilder();
+      for (int i = 0; i < 10000; i++) {
+        StringBuilder address = new StringBuilder();
+        int length = random.nextInt(24);
+        for (int j = 0; j < length; j++) {
+          address.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        addresses.add(address.toString());
+        content.append(address).append('\n');
+      }
+
+      EmailBatchValidator batchValidator = new EmailBatchValidator();
+      BitSet valid = batchValidator.validateLines(content);
+      List<Long> expected = new ArrayList<Long>();
+      long offset = 0;
+      for (int i = 0; i < addresses.size(); i++) {
+        if (!valid.get(i)) {
+          expected.add(offset);
+        }
+        offset += addresses.get(i).getBytes(StandardCharsets.UTF_8).length + 1;
+      }
+
+      EmailFileValidator validator =
+          new EmailFileValidator(true, Email.Engine.SCANNER, 254, windowSize);
+      Assert.assertEquals(expected, validate(validator, content.toString()));
+    }
+  }
+
+  private static List<Long> validate(final EmailFileValidator validator, final String content)
+      throws IOException {
+    Path file = Files.createTempFile("emails", ".txt");
+    try {
+      Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+      final List<Long> invalid = new ArrayList<Long>();
+      validator.validate(file, new LongConsumer() {
+        @Override
+        public void accept(final long value) {
+          invalid.add(value);
+        }
+      });
+      return invalid;
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
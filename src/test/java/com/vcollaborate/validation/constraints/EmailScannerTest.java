@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Differential tests proving that {@link EmailScanner} accepts exactly the addresses the regular
+ * expressions of {@link EmailValidator} accept.
+ */
+public class EmailScannerTest {
+
+  private static final String ALPHABET = "aZ09.@[]-~!\\ \"(1255.@\n";
+
+  private static final String[] ADDRESSES = { "test@v-collaborate.com", "test@v-collaborate",
+      "first.last@sub.example.org", "a@b", "a@b.", "a@.b", ".a@b.c", "a.@b.c", "a..b@c.d",
+      "a@b..c", "@b.c", "a@", "a", "", "a@b@c.d", "a@[127.0.0.1]", "a@[127.0.0]",
+      "a@[1270.0.0.1]", "a@[127.0.0.1", "a@[127.0.0.1]x", "a@[127.0.0.1.]", "A@B.CD",
+      "!#$%&'*+/=?^_`{|}~-@example.com", "a b@c.d", "\"a\"@c.d", "a@c.d\n", "a@c.d ",
+      "test@m\u00fcller.de", "m\u00fcller@test.de", "a@\u00fc", "a@[\u00fc]",
+      "a@b.c\u00fc\u00fc\u00fc", repeat('a', 63) + "@b.c", repeat('a', 64) + "@b.c",
+      "a@" + repeat('b', 64) + ".c" };
+
+  @Test
+  public void testKnownAddresses() {
+    for (String address : ADDRESSES) {
+      assertSameResult(address);
+    }
+  }
+
+  @Test
+  public void testRandomAddresses() {
+    Random random = new Random(42);
+    for (int i = 0; i < 200000; i++) {
+      StringBuilder address = new StringBuilder();
+      int length = random.nextInt(16);
+      for (int j = 0; j < length; j++) {
+        address.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      }
+      assertSameResult(address.toString());
+    }
+  }
+
+  @Test
+  public void testRandomIpDomains() {
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      String address = "a.b@[" + random.nextInt(1200) + "." + random.nextInt(20)
+          + (random.nextBoolean() ? "." : "") + random.nextInt(300) + ".1"
+          + (random.nextBoolean() ? "]" : "]x");
+      assertSameResult(address);
+    }
+  }
+
+  @Test
+  public void testScanWithinBounds() {
+    String addresses = "a@b.c\nnot valid\nx@[1.2.3.4]";
+
+    Assert.assertTrue(EmailScanner.matches(addresses, 0, 5, true));
+    Assert.assertFalse(EmailScanner.matches(addresses, 6, 15, true));
+    Assert.assertTrue(EmailScanner.matches(addresses, 16, addresses.length(), true));
+    Assert.assertFalse(EmailScanner.matches(addresses, 0, 4, true));
+  }
+
+  @Test
+  public void testLongAddresses() {
+    StringBuilder dotted = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      dotted.append("a.");
+    }
+    String[] addresses = { repeat('a', 200000) + "!", repeat('a', 200000) + "@",
+        dotted + "a@" + dotted + "a", dotted + "@" + dotted, "a@" + dotted + " " };
+    for (String address : addresses) {
+      Assert.assertEquals(isValid(unboundedRegex, address), isValid(unboundedScanner, address));
+      Assert.assertEquals("false", isValid(withSuffixRegex, address));
+    }
+    Assert.assertEquals("true", isValid(unboundedRegex, addresses[2]));
+  }
+
+  private final EmailValidator withSuffixRegex = validator("withSuffixRegex");
+  private final EmailValidator withSuffixScanner = validator("withSuffixScanner");
+  private final EmailValidator withoutSuffixRegex = validator("withoutSuffixRegex");
+  private final EmailValidator withoutSuffixScanner = validator("withoutSuffixScanner");
+  private final EmailValidator unboundedRegex = validator("unboundedRegex");
+  private final EmailValidator unboundedScanner = validator("unboundedScanner");
+
+  private void assertSameResult(final String address) {
+    Assert.assertEquals("with suffix: '" + address + "'", isValid(withSuffixRegex, address),
+        isValid(withSuffixScanner, address));
+    Assert.assertEquals("without suffix: '" + address + "'", isValid(withoutSuffixRegex, address),
+        isValid(withoutSuffixScanner, address));
+  }
+
+  private String isValid(final EmailValidator validator, final String address) {
+    try {
+      return String.valueOf(validator.isValid(address, null));
+    } catch (IllegalArgumentException e) {
+      return e.getClass().getName();
+    }
+  }
+
+  private static String repeat(final char character, final int count) {
+    char[] chars = new char[count];
+    Arrays.fill(chars, character);
+    return new String(chars);
+  }
+
+  private static EmailValidator validator(final String field) {
+    try {
+      EmailValidator validator = new EmailValidator();
+      validator.initialize(Engines.class.getDeclaredField(field).getAnnotation(Email.class));
+      return validator;
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static class Engines {
+    @Email(engine = Email.Engine.REGEX)
+    String withSuffixRegex;
+
+    @Email(engine = Email.Engine.SCANNER)
+    String withSuffixScanner;
+
+    @Email(requiressuffix = false, engine = Email.Engine.REGEX)
+    String withoutSuffixRegex;
+
+    @Email(requiressuffix = false, engine = Email.Engine.SCANNER)
+    String withoutSuffixScanner;
+
+    @Email(maxLength = Integer.MAX_VALUE, engine = Email.Engine.REGEX)
+    String unboundedRegex;
+
+    @Email(maxLength = Integer.MAX_VALUE, engine = Email.Engine.SCANNER)
+    String unboundedScanner;
+  }
+}
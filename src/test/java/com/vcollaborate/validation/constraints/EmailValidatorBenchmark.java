@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Measures {@link EmailValidator} on adversarial inputs of growing {@link #length}, compared to
+ * the former greedy regular expression. Matching time of both engines should grow linearly with
+ * {@link #length}, and the default {@link Email#maxLength()} rejects such inputs in constant time.
+ * 
+ * Run with {@code mvn -Pbenchmark verify -Dbenchmark=EmailValidatorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailValidatorBenchmark {
+
+  private static final String ATOM = "[a-z0-9!#$%&'*+/=?^_`{|}~-]";
+
+  /**
+   * The regular expression used before the possessive quantifiers were introduced. It recurses
+   * once per dotted atom and overflows the stack on a few thousand of them, which limits
+   * {@link #length}.
+   */
+  private static final Pattern GREEDY = Pattern.compile("^" + ATOM + "+(\\." + ATOM + "+)*@("
+      + ATOM + "+(\\." + ATOM + "+)+|\\[[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\])$",
+      Pattern.CASE_INSENSITIVE);
+
+  @Param({ "64", "512", "2048" })
+  private int length;
+
+  @Param({ "SCANNER", "REGEX" })
+  private Email.Engine engine;
+
+  private EmailValidator unbounded;
+  private EmailValidator bounded;
+
+  /** Dotted atoms on both sides of the '@', failing at the very last character. */
+  private String dotted;
+
+  /** A single atom lacking the '@'. */
+  private String missingAt;
+
+  @Setup
+  public void setUp() throws NoSuchFieldException {
+    String suffix = engine == Email.Engine.SCANNER ? "Scanner" : "Regex";
+    unbounded = validator("unbounded" + suffix);
+    bounded = validator("bounded" + suffix);
+
+    StringBuilder half = new StringBuilder();
+    while (half.length() < length / 2 - 1) {
+      half.append("a.");
+    }
+    dotted = half + "a@" + half + " ";
+
+    StringBuilder atom = new StringBuilder();
+    while (atom.length() < length - 1) {
+      atom.append('a');
+    }
+    missingAt = atom + "!";
+  }
+
+  @Benchmark
+  public boolean validatorDotted() {
+    return unbounded.isValid(dotted, null);
+  }
+
+  @Benchmark
+  public boolean validatorMissingAt() {
+    return unbounded.isValid(missingAt, null);
+  }
+
+  @Benchmark
+  public boolean maxLengthDotted() {
+    return bounded.isValid(dotted, null);
+  }
+
+  @Benchmark
+  public boolean greedyDotted() {
+    return GREEDY.matcher(dotted).matches();
+  }
+
+  @Benchmark
+  public boolean greedyMissingAt() {
+    return GREEDY.matcher(missingAt).matches();
+  }
+
+  private static EmailValidator validator(final String field) throws NoSuchFieldException {
+    EmailValidator validator = new EmailValidator();
+    validator.initialize(Engines.class.getDeclaredField(field).getAnnotation(Email.class));
+    return validator;
+  }
+
+  private static class Engines {
+    @Email(maxLength = Integer.MAX_VALUE, engine = Email.Engine.SCANNER)
+    String unboundedScanner;
+
+    @Email(maxLength = Integer.MAX_VALUE, engine = Email.Engine.REGEX)
+    String unboundedRegex;
+
+    @Email(engine = Email.Engine.SCANNER)
+    String boundedScanner;
+
+    @Email(engine = Email.Engine.REGEX)
+    String boundedRegex;
+  }
+}
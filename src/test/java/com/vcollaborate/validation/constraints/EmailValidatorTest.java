@@ -44,6 +44,49 @@ public class EmailValidatorTest {
     Assert.assertTrue(isValidAccordingToBeanValidation(email2));
   }
 
+  @Test
+  public void testInternationalEmail() {
+    val email1 = new EmailWithSuffix("test@m\u00fcller.de");
+    Assert.assertTrue(isValidAccordingToBeanValidation(email1));
+
+    val email2 = new EmailWithSuffix("test@m\u00fcller");
+    Assert.assertFalse(isValidAccordingToBeanValidation(email2));
+  }
+
+  @Test
+  public void testMaxLength() {
+    val domain = new StringBuilder();
+    for (int i = 0; i < 24; i++) {
+      domain.append("abcdefghi.");
+    }
+    domain.append("abcdefghi");
+
+    val email1 = new EmailWithSuffix("test@" + domain);
+    Assert.assertEquals(254, email1.getEmail().length());
+    Assert.assertTrue(isValidAccordingToBeanValidation(email1));
+
+    val email2 = new EmailWithSuffix("tests@" + domain);
+    Assert.assertFalse(isValidAccordingToBeanValidation(email2));
+  }
+
+  @Test
+  public void testLabelLengthOfAsciiAndInternationalEmail() {
+    val localPart = new StringBuilder();
+    for (int i = 0; i < 40; i++) {
+      localPart.append('x');
+    }
+    val label = new StringBuilder();
+    for (int i = 0; i < 29; i++) {
+      label.append('y');
+    }
+
+    val ascii = new EmailWithSuffix(localPart + "@" + label + "y.com");
+    val international = new EmailWithSuffix(localPart + "@" + label + "\u00fc.com");
+    Assert.assertTrue(isValidAccordingToBeanValidation(ascii));
+    Assert.assertEquals(isValidAccordingToBeanValidation(international),
+        isValidAccordingToBeanValidation(ascii));
+  }
+
   @Data
   @AllArgsConstructor
   private class EmailWithoutSuffix {
@@ -27,8 +27,17 @@ import org.joda.time.DateMidnight;
 import org.joda.time.DateTime;
 import org.junit.Test;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
@@ -82,6 +91,125 @@ public class FutureValidatorTest {
     Assert.assertTrue(isValidAccordingToBeanValidation(fdwt));
   }
 
+  @Test
+  public void testsWithJavaTime() throws Exception {
+    Assert.assertTrue(isValidAccordingToBeanValidation(futureJavaTime()));
+
+    FutureJavaTime fjt = futureJavaTime();
+    fjt.setInstant(Instant.now().minus(1, ChronoUnit.HOURS));
+    Assert.assertFalse(isValidAccordingToBeanValidation(fjt));
+
+    fjt = futureJavaTime();
+    fjt.setLocalDate(LocalDate.now());
+    Assert.assertFalse(isValidAccordingToBeanValidation(fjt));
+
+    fjt = futureJavaTime();
+    fjt.setLocalDateTime(LocalDateTime.now().minusHours(1));
+    Assert.assertFalse(isValidAccordingToBeanValidation(fjt));
+
+    fjt = futureJavaTime();
+    fjt.setOffsetDateTime(OffsetDateTime.now().minusHours(1));
+    Assert.assertFalse(isValidAccordingToBeanValidation(fjt));
+
+    fjt = futureJavaTime();
+    fjt.setZonedDateTime(ZonedDateTime.now().minusHours(1));
+    Assert.assertFalse(isValidAccordingToBeanValidation(fjt));
+  }
+
+  @Test
+  public void testsWithJavaTimeAndToday() throws Exception {
+    Instant midnight = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant();
+
+    Assert.assertTrue(isValidAccordingToBeanValidation(new FutureJavaTimeWithToday(
+        LocalDate.now(), midnight)));
+    Assert.assertFalse(isValidAccordingToBeanValidation(new FutureJavaTimeWithToday(
+        LocalDate.now().minusDays(1), midnight)));
+    Assert.assertFalse(isValidAccordingToBeanValidation(new FutureJavaTimeWithToday(
+        LocalDate.now(), midnight.minusMillis(1))));
+  }
+
+  @Test
+  public void testsWithFixedClock() throws Exception {
+    ZoneId zone = ZoneId.of("Europe/Vienna");
+    Instant now = ZonedDateTime.of(2015, 3, 29, 12, 0, 0, 0, zone).toInstant();
+    Instant midnight = ZonedDateTime.of(2015, 3, 29, 0, 0, 0, 0, zone).toInstant();
+    ValidationClock clock = ValidationClock.fixed(now, zone);
+
+    FutureValidator future = new FutureValidator(clock);
+    future.initialize(FutureDate.class.getDeclaredField("date").getAnnotation(Future.class));
+    FutureValidator futureWithToday = new FutureValidator(clock);
+    futureWithToday.initialize(FutureDateWithToday.class.getDeclaredField("date").getAnnotation(
+        Future.class));
+
+    Assert.assertTrue(future.isValid(Date.from(now.plusMillis(1)), null));
+    Assert.assertFalse(future.isValid(Date.from(now), null));
+    Assert.assertFalse(future.isValid(LocalDate.of(2015, 3, 29), null));
+    Assert.assertTrue(future.isValid(LocalDateTime.of(2015, 3, 29, 12, 0, 1), null));
+
+    Assert.assertTrue(futureWithToday.isValid(Date.from(midnight), null));
+    Assert.assertFalse(futureWithToday.isValid(Date.from(midnight.minusMillis(1)), null));
+    Assert.assertTrue(futureWithToday.isValid(LocalDate.of(2015, 3, 29), null));
+    Assert.assertFalse(futureWithToday.isValid(LocalDate.of(2015, 3, 28), null));
+  }
+
+  /**
+   * The default clock reads the default time zone again when the cached day expires.
+   */
+  @Test
+  public void testsDefaultClockWithChangedDefaultZone() throws Exception {
+    TimeZone original = TimeZone.getDefault();
+    try {
+      TimeZone.setDefault(TimeZone.getTimeZone("Europe/Vienna"));
+      ValidationClock.setDefault(null);
+      ValidationClock clock = ValidationClock.getDefault();
+      long now = clock.millis();
+      Assert.assertEquals(startOfDay(now, ZoneId.of("Europe/Vienna")), clock.startOfDay(now));
+
+      TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Auckland"));
+      long dayAfterTomorrow = now + TimeUnit.DAYS.toMillis(2);
+      Assert.assertEquals(startOfDay(dayAfterTomorrow, ZoneId.of("Pacific/Auckland")),
+          clock.startOfDay(dayAfterTomorrow));
+    } finally {
+      TimeZone.setDefault(original);
+      ValidationClock.setDefault(null);
+    }
+  }
+
+  private static long startOfDay(final long millis, final ZoneId zone) {
+    return Instant.ofEpochMilli(millis).atZone(zone).toLocalDate().atStartOfDay(zone).toInstant()
+        .toEpochMilli();
+  }
+
+  private FutureJavaTime futureJavaTime() {
+    return new FutureJavaTime(Instant.now().plus(1, ChronoUnit.DAYS), LocalDate.now().plusDays(1),
+        LocalDateTime.now().plusHours(1), OffsetDateTime.now().plusHours(1),
+        ZonedDateTime.now().plusHours(1));
+  }
+
+  @Data
+  @AllArgsConstructor
+  private class FutureJavaTime {
+    @Future
+    private Instant instant;
+    @Future
+    private LocalDate localDate;
+    @Future
+    private LocalDateTime localDateTime;
+    @Future
+    private OffsetDateTime offsetDateTime;
+    @Future
+    private ZonedDateTime zonedDateTime;
+  }
+
+  @Data
+  @AllArgsConstructor
+  private class FutureJavaTimeWithToday {
+    @Future(today = true)
+    private LocalDate localDate;
+    @Future(today = true)
+    private Instant instant;
+  }
+
   @Data
   @AllArgsConstructor
   private class FutureDateWithToday {
@@ -60,6 +60,29 @@ public class AllowedIntegersValidatorTest {
     private Integer value;
   }
 
+  @Data
+  private class ClassWithAllowedIntegerRanges {
+
+    @AllowedIntegers(value = 42, ranges = { "100-199", "300", "-10--1" })
+    private Integer value;
+  }
+
+  @Test
+  public void testAllowedRanges() {
+    log.info("testAllowedRanges");
+    ClassWithAllowedIntegerRanges instance = new ClassWithAllowedIntegerRanges();
+
+    for (int value : new int[] { 42, 100, 150, 199, 300, -10, -1 }) {
+      instance.setValue(value);
+      Assert.assertTrue(validator.validate(instance).isEmpty());
+    }
+
+    for (int value : new int[] { 0, 41, 99, 200, 299, 301, -11 }) {
+      instance.setValue(value);
+      Assert.assertFalse(validator.validate(instance).isEmpty());
+    }
+  }
+
   @Test
   public void testAllowedValue() {
     log.info("testAllowedValue");
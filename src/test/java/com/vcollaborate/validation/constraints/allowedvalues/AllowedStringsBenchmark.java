@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.allowedvalues;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Payload;
+
+/**
+ * Measures the lookup of {@link AllowdStringsValidator} for a growing number of allowed values,
+ * compared to the former linear {@link List#contains(Object)}. The validator's lookup cost should
+ * not grow with {@link #size}.
+ * 
+ * Run with {@code mvn -Pbenchmark verify -Dbenchmark=AllowedStringsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllowedStringsBenchmark {
+
+  @Param({ "4", "64", "512" })
+  private int size;
+
+  private AllowdStringsValidator validator;
+  private List<String> list;
+  private String lastValue;
+  private String missingValue;
+
+  @Setup
+  public void setUp() {
+    final String[] values = new String[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = "CODE-" + i;
+    }
+    lastValue = new String(values[size - 1]);
+    missingValue = "CODE-" + size;
+    list = Arrays.asList(values);
+
+    validator = new AllowdStringsValidator();
+    validator.initialize(new AllowedStrings() {
+      public Class<? extends Annotation> annotationType() {
+        return AllowedStrings.class;
+      }
+
+      public Class<?>[] groups() {
+        return new Class<?>[0];
+      }
+
+      @SuppressWarnings("unchecked")
+      public Class<? extends Payload>[] payload() {
+        return new Class[0];
+      }
+
+      public String message() {
+        return "Invalid value";
+      }
+
+      public String[] value() {
+        return values;
+      }
+
+      public boolean nullAllowed() {
+        return true;
+      }
+    });
+  }
+
+  @Benchmark
+  public boolean validatorLastValue() {
+    return validator.isValid(lastValue, null);
+  }
+
+  @Benchmark
+  public boolean validatorMissingValue() {
+    return validator.isValid(missingValue, null);
+  }
+
+  @Benchmark
+  public boolean listLastValue() {
+    return list.contains(lastValue);
+  }
+
+  @Benchmark
+  public boolean listMissingValue() {
+    return list.contains(missingValue);
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.allowedvalues;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class IntSetTest {
+
+  @Test
+  public void testDenseValuesUseBitSet() {
+    IntSet set = IntSet.of(new int[] { 100, 101, 150, 199, 101 });
+
+    Assert.assertTrue(set instanceof IntSet.BitSetIntSet);
+    assertSameContent(set, new int[] { 100, 101, 150, 199 });
+  }
+
+  @Test
+  public void testFewSparseValuesUseSortedArray() {
+    IntSet set = IntSet.of(new int[] { Integer.MAX_VALUE, -100000, 0, Integer.MIN_VALUE });
+
+    Assert.assertTrue(set instanceof IntSet.SortedArrayIntSet);
+    assertSameContent(set, new int[] { Integer.MAX_VALUE, -100000, 0, Integer.MIN_VALUE });
+  }
+
+  @Test
+  public void testManySparseValuesUseHashSet() {
+    Random random = new Random(42);
+    int[] values = new int[500];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt();
+    }
+    IntSet set = IntSet.of(values);
+
+    Assert.assertTrue(set instanceof IntSet.HashIntSet);
+    assertSameContent(set, values);
+  }
+
+  @Test
+  public void testWideRangesUseIntervals() {
+    IntSet set = IntSet.of(new int[] { 42 }, new int[][] { { 100, 599 }, { -70000, -1 },
+        { 1000000, Integer.MAX_VALUE } });
+
+    Assert.assertTrue(set instanceof IntSet.RangeIntSet);
+    Assert.assertTrue(set.contains(42));
+    Assert.assertTrue(set.contains(100));
+    Assert.assertTrue(set.contains(599));
+    Assert.assertTrue(set.contains(-70000));
+    Assert.assertTrue(set.contains(-1));
+    Assert.assertTrue(set.contains(Integer.MAX_VALUE));
+    Assert.assertFalse(set.contains(0));
+    Assert.assertFalse(set.contains(99));
+    Assert.assertFalse(set.contains(600));
+    Assert.assertFalse(set.contains(-70001));
+    Assert.assertFalse(set.contains(Integer.MIN_VALUE));
+  }
+
+  @Test
+  public void testOverlappingRangesAndValuesAreMerged() {
+    IntSet set = IntSet.of(new int[] { 200, 300 }, new int[][] { { 100, 199 }, { 150, 250 } });
+
+    Assert.assertTrue(set instanceof IntSet.BitSetIntSet);
+    for (int value = 100; value <= 250; value++) {
+      Assert.assertTrue(set.contains(value));
+    }
+    Assert.assertTrue(set.contains(300));
+    Assert.assertFalse(set.contains(99));
+    Assert.assertFalse(set.contains(251));
+    Assert.assertFalse(set.contains(299));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvertedRange() {
+    IntSet.of(new int[0], new int[][] { { 10, 5 } });
+  }
+
+  @Test
+  public void testEmptySet() {
+    IntSet set = IntSet.of(new int[0]);
+
+    Assert.assertFalse(set.contains(0));
+    Assert.assertFalse(set.contains(Integer.MIN_VALUE));
+  }
+
+  private void assertSameContent(final IntSet set, final int[] values) {
+    Set<Integer> expected = new HashSet<Integer>();
+    for (int value : values) {
+      expected.add(value);
+      Assert.assertTrue(set.contains(value));
+    }
+
+    Random random = new Random(7);
+    for (int i = 0; i < 10000; i++) {
+      int value = i % 2 == 0 ? random.nextInt() : values[i % values.length] + random.nextInt(5) - 2;
+      Assert.assertEquals(expected.contains(value), set.contains(value));
+    }
+  }
+}
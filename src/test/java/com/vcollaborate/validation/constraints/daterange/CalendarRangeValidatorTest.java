@@ -332,8 +332,14 @@ public class CalendarRangeValidatorTest {
     }
   }
 
+  /**
+   * Validates the instance and asserts that the reflective plan agrees, as test compilation
+   * generates validators for the non-private cases.
+   */
   private boolean isValid(Object instance) {
-    return new DateRangeValidator().isValid(instance, null);
+    boolean valid = new DateRangeValidator().isValid(instance, null);
+    Assert.assertEquals(valid, DateRangePlan.reflective(instance.getClass()).isValid(instance));
+    return valid;
   }
 
   private Calendar daysBefore(Calendar date, int days) {
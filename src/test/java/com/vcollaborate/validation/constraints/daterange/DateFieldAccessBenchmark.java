@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.daterange;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a {@link StartDate} field through {@link Field#get(Object)}, as done by
+ * {@link DateRangePlan}, with a method handle that is not constant to the JIT, and validating a
+ * class with private fields through the plan with validating a class for which a
+ * {@link CompiledDateRange} was generated.
+ * 
+ * Run with {@code mvn -Pbenchmark verify -Dbenchmark=DateFieldAccessBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateFieldAccessBenchmark {
+
+  private Booking booking;
+  private CompiledBooking compiledBooking;
+  private Field field;
+  private MethodHandle getter;
+
+  @Setup
+  public void setUp() throws Exception {
+    booking = new Booking();
+    booking.start = new Date();
+    booking.end = new Date(booking.start.getTime() + TimeUnit.DAYS.toMillis(7));
+
+    compiledBooking = new CompiledBooking();
+    compiledBooking.start = booking.start;
+    compiledBooking.end = booking.end;
+
+    field = Booking.class.getDeclaredField("start");
+    field.setAccessible(true);
+    getter = MethodHandles.lookup().unreflectGetter(field)
+        .asType(MethodType.methodType(Object.class, Object.class));
+  }
+
+  @Benchmark
+  public Object reflectiveFieldGet() throws IllegalAccessException {
+    return field.get(booking);
+  }
+
+  @Benchmark
+  public Object methodHandleGet() throws Throwable {
+    return (Object) getter.invokeExact((Object) booking);
+  }
+
+  @Benchmark
+  public boolean isValid() {
+    return new DateRangeValidator().isValid(booking, null);
+  }
+
+  @Benchmark
+  public boolean isValidCompiled() {
+    return new DateRangeValidator().isValid(compiledBooking, null);
+  }
+
+  @DateRange
+  static class Booking {
+    @StartDate
+    private Date start;
+
+    @EndDate(minimumDaysRange = 5)
+    private Date end;
+  }
+
+  @DateRange
+  static class CompiledBooking {
+    @StartDate
+    Date start;
+
+    @EndDate(minimumDaysRange = 5)
+    Date end;
+  }
+}
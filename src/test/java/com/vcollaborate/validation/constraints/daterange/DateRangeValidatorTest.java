@@ -23,6 +23,9 @@ import org.joda.time.DateTime;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.Set;
 
@@ -324,6 +327,88 @@ public class DateRangeValidatorTest {
   }
 
 
+  @Test
+  public void shouldCompileRangePlanOncePerClass() throws Exception {
+    DateRangePlan plan = DateRangePlan.forClass(StantardCaseDaysRangeEquals5.class);
+
+    Assert.assertSame(plan, DateRangePlan.forClass(StantardCaseDaysRangeEquals5.class));
+    Assert.assertEquals(1, plan.size());
+    Assert.assertEquals(2,
+        DateRangePlan.forClass(ThreeFieldsFirstRange2DaysMinimumSecondRange1DayMinimum.class)
+            .size());
+    Assert.assertEquals(0, DateRangePlan.forClass(NoEndDateCase.class).size());
+
+    DateTime startDate = datesToTest[0];
+    Assert.assertTrue(isValid(new StantardCaseDaysRangeEquals5(startDate.toDate(),
+        startDate.plusDays(5).toDate())));
+    Assert.assertFalse(isValid(new StantardCaseDaysRangeEquals5(startDate.toDate(),
+        startDate.plusDays(3).toDate())));
+  }
+
+  @Test
+  public void shouldSupportEpochMillisAndJodaValues() throws Exception {
+    for (int i = 0; i < datesToTest.length; i++) {
+      DateTime startDate = datesToTest[i];
+
+      Assert.assertTrue(isValid(new EpochMillisCase(startDate.getMillis(),
+          startDate.plusDays(5).getMillis())));
+      Assert.assertFalse(isValid(new EpochMillisCase(startDate.getMillis(),
+          startDate.plusDays(3).getMillis())));
+
+      Assert.assertTrue(isValid(new JodaCase(startDate, startDate.plusDays(5))));
+      Assert.assertFalse(isValid(new JodaCase(startDate, startDate.plusDays(3))));
+    }
+  }
+
+  @Test
+  public void shouldValidateInheritedFieldsAndGetters() throws Exception {
+    for (int i = 0; i < datesToTest.length; i++) {
+      DateTime startDate = datesToTest[i];
+
+      InheritedPeriodCase inherited = new InheritedPeriodCase();
+      inherited.startDate = startDate.toDate();
+      inherited.endDate = startDate.plusDays(5).toDate();
+
+      Assert.assertTrue(isValid(inherited));
+      Assert.assertTrue(isValidAccordingToBeanValidation(inherited));
+
+      inherited.endDate = startDate.plusDays(3).toDate();
+
+      Assert.assertFalse(isValid(inherited));
+      Assert.assertFalse(isValidAccordingToBeanValidation(inherited));
+
+      GetterCase getters = new GetterCase(startDate.toDate(), startDate.plusDays(3).toDate());
+
+      Assert.assertFalse(isValid(getters));
+      Assert.assertFalse(isValidAccordingToBeanValidation(getters));
+    }
+  }
+
+  @Test
+  public void shouldSupportJavaTimeValues() throws Exception {
+    for (int i = 0; i < datesToTest.length; i++) {
+      DateTime startDate = datesToTest[i];
+      LocalDate localStart = LocalDate.of(startDate.getYear(), startDate.getMonthOfYear(),
+          startDate.getDayOfMonth());
+      Instant instantStart = Instant.ofEpochMilli(startDate.getMillis());
+
+      JavaTimeCase valid = new JavaTimeCase(localStart, localStart.plusDays(5), instantStart,
+          instantStart.plus(5, ChronoUnit.DAYS));
+      Assert.assertTrue(isValid(valid));
+      Assert.assertTrue(isValidAccordingToBeanValidation(valid));
+
+      JavaTimeCase invalidLocalDates = new JavaTimeCase(localStart, localStart.plusDays(3),
+          instantStart, instantStart.plus(5, ChronoUnit.DAYS));
+      Assert.assertFalse(isValid(invalidLocalDates));
+      Assert.assertFalse(isValidAccordingToBeanValidation(invalidLocalDates));
+
+      JavaTimeCase invalidInstants = new JavaTimeCase(localStart, localStart.plusDays(5),
+          instantStart, instantStart.plus(3, ChronoUnit.DAYS));
+      Assert.assertFalse(isValid(invalidInstants));
+      Assert.assertFalse(isValidAccordingToBeanValidation(invalidInstants));
+    }
+  }
+
   @DateRange
   class NoEndDateCase {
     @StartDate
@@ -359,6 +444,90 @@ public class DateRangeValidatorTest {
     }
   }
 
+  @DateRange
+  private class EpochMillisCase {
+    @StartDate
+    Long startDate;
+
+    @EndDate(minimumDaysRange = 5)
+    Long endDate;
+
+    public EpochMillisCase(Long startDate, Long endDate) {
+      this.startDate = startDate;
+      this.endDate = endDate;
+    }
+  }
+
+  @DateRange
+  private class JodaCase {
+    @StartDate
+    DateTime startDate;
+
+    @EndDate(minimumDaysRange = 5)
+    DateTime endDate;
+
+    public JodaCase(DateTime startDate, DateTime endDate) {
+      this.startDate = startDate;
+      this.endDate = endDate;
+    }
+  }
+
+  class Period {
+    @StartDate
+    Date startDate;
+
+    @EndDate(minimumDaysRange = 5)
+    Date endDate;
+  }
+
+  @DateRange
+  class InheritedPeriodCase extends Period {
+  }
+
+  @DateRange
+  private class GetterCase {
+    private Date begin;
+    private Date end;
+
+    public GetterCase(Date begin, Date end) {
+      this.begin = begin;
+      this.end = end;
+    }
+
+    @StartDate
+    public Date getBegin() {
+      return begin;
+    }
+
+    @EndDate(minimumDaysRange = 5)
+    public Date getEnd() {
+      return end;
+    }
+  }
+
+  @DateRange
+  private class JavaTimeCase {
+    @StartDate
+    LocalDate startDate;
+
+    @EndDate(minimumDaysRange = 5)
+    LocalDate endDate;
+
+    @StartDate(id = 1)
+    Instant startInstant;
+
+    @EndDate(minimumDaysRange = 5, id = 1)
+    Instant endInstant;
+
+    public JavaTimeCase(LocalDate startDate, LocalDate endDate, Instant startInstant,
+        Instant endInstant) {
+      this.startDate = startDate;
+      this.endDate = endDate;
+      this.startInstant = startInstant;
+      this.endInstant = endInstant;
+    }
+  }
+
   @DateRange
   private class StantardCaseDaysRangeEquals10 {
     @StartDate
@@ -464,8 +633,14 @@ public class DateRangeValidatorTest {
     }
   }
 
+  /**
+   * Validates the instance and asserts that the reflective plan agrees, as test compilation
+   * generates validators for the non-private cases.
+   */
   private boolean isValid(Object instance) {
-    return new DateRangeValidator().isValid(instance, null);
+    boolean valid = new DateRangeValidator().isValid(instance, null);
+    Assert.assertEquals(valid, DateRangePlan.reflective(instance.getClass()).isValid(instance));
+    return valid;
   }
 
   // For integration tests:
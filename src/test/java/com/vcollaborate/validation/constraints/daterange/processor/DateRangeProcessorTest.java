@@ -0,0 +1,297 @@
+/*
+ * Copyright (C) 2012-2015 Christian Sterzl <christian.sterzl@gmail.com>
+ *
+ * This file is part of ValidationConstraints.
+ *
+ * ValidationConstraints is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ValidationConstraints is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ValidationConstraints.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.vcollaborate.validation.constraints.daterange.processor;
+
+import com.vcollaborate.validation.constraints.daterange.CompiledDateRange;
+import com.vcollaborate.validation.constraints.daterange.DateRangeValidator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+public class DateRangeProcessorTest {
+
+  private static final long DAY = 86400000L;
+
+  private static final String BOOKING = "package sample;\n"
+      + "import java.util.Date;\n"
+      + "import com.vcollaborate.validation.constraints.daterange.*;\n"
+      + "import com.vcollaborate.validation.constraints.nested.Nested;\n"
+      + "public class Booking {\n"
+      + "  @DateRange\n"
+      + "  public static class Stay extends Base {\n"
+      + "    @StartDate(id = 1) Date checkIn;\n"
+      + "    @EndDate(id = 1, allowedDayRanges = { 2, 7 }) Date checkOut;\n"
+      + "    @EndDate(id = 2) Date orphan;\n"
+      + "    @Override public Date getEnd() { return end; }\n"
+      + "    @Nested(value = Guest.class, types = Host.class) Object guest;\n"
+      + "  }\n"
+      + "  @DateRange\n"
+      + "  static class Cancellation {\n"
+      + "    @StartDate Date start;\n"
+      + "    @EndDate(minimumDaysRange = 1) Date cancelled;\n"
+      + "    @EndDate(minimumDaysRange = 3) long end;\n"
+      + "  }\n"
+      + "  @DateRange\n"
+      + "  public static class Lookup {\n"
+      + "    Date begin;\n"
+      + "    @StartDate public Date getBegin() throws Exception { return begin; }\n"
+      + "    @EndDate Date end;\n"
+      + "  }\n"
+      + "  @DateRange\n"
+      + "  private static class Hidden {\n"
+      + "    @StartDate Date start;\n"
+      + "    @EndDate Date end;\n"
+      + "  }\n"
+      + "}\n"
+      + "class Base {\n"
+      + "  @StartDate Date start;\n"
+      + "  Date end;\n"
+      + "  @EndDate(minimumDaysRange = 5) public Date getEnd() { return end; }\n"
+      + "}\n"
+      + "class Guest {\n"
+      + "}\n"
+      + "class Host {\n"
+      + "}\n";
+
+  private Path directory;
+  private ClassLoader classLoader;
+  private ClassLoader reflectiveClassLoader;
+
+  @Before
+  public void compile() throws IOException {
+    directory = Files.createTempDirectory("daterange");
+    compile("Booking.java", BOOKING);
+
+    classLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() },
+        getClass().getClassLoader());
+    reflectiveClassLoader = new ReflectiveClassLoader(directory.toUri().toURL(),
+        getClass().getClassLoader());
+  }
+
+  /**
+   * Compiles a single source file into {@link #directory}, like an incremental build.
+   */
+  private void compile(final String fileName, final String content) throws IOException {
+    Path source = directory.resolve(fileName);
+    Files.write(source, content.getBytes(StandardCharsets.UTF_8));
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+    Iterable<? extends JavaFileObject> units =
+        fileManager.getJavaFileObjects(source.toFile());
+    JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+        Arrays.asList("-d", directory.toString(), "-classpath",
+            System.getProperty("java.class.path")), null, units);
+    task.setProcessors(Collections.singletonList(new DateRangeProcessor()));
+    Assert.assertTrue(task.call());
+    fileManager.close();
+  }
+
+  @Test
+  public void shouldGenerateValidatorsForAccessibleClasses() throws Exception {
+    Assert.assertTrue(CompiledDateRange.class.isAssignableFrom(
+        load("sample.Booking$Stay" + CompiledDateRange.CLASS_NAME_SUFFIX)));
+    Assert.assertTrue(CompiledDateRange.class.isAssignableFrom(
+        load("sample.Booking$Cancellation" + CompiledDateRange.CLASS_NAME_SUFFIX)));
+
+    try {
+      load("sample.Booking$Hidden" + CompiledDateRange.CLASS_NAME_SUFFIX);
+      Assert.fail("Validators of private classes can not be generated.");
+    } catch (ClassNotFoundException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void shouldSkipClassesWithGettersDeclaringExceptions() throws Exception {
+    try {
+      load("sample.Booking$Lookup" + CompiledDateRange.CLASS_NAME_SUFFIX);
+      Assert.fail("Getters declaring exceptions can not be called by generated validators.");
+    } catch (ClassNotFoundException e) {
+      // expected
+    }
+
+    Object lookup = load("sample.Booking$Lookup").getConstructor().newInstance();
+    set(lookup, "begin", new Date(DAY));
+    set(lookup, "end", new Date(0));
+    Assert.assertFalse(new DateRangeValidator().isValid(lookup, null));
+  }
+
+  @Test
+  public void shouldValidateInheritedMembersAndIds() throws Exception {
+    Object stay = load("sample.Booking$Stay").getConstructor().newInstance();
+    set(stay, "start", new Date(0));
+    set(stay, "end", new Date(5 * DAY));
+    set(stay, "checkIn", new Date(0));
+    set(stay, "checkOut", new Date(7 * DAY));
+    Assert.assertTrue(isValid(stay));
+
+    set(stay, "checkOut", new Date(6 * DAY));
+    Assert.assertFalse(isValid(stay));
+
+    set(stay, "checkOut", new Date(2 * DAY));
+    set(stay, "end", new Date(4 * DAY));
+    Assert.assertFalse(isValid(stay));
+
+    set(stay, "start", null);
+    Assert.assertTrue(isValid(stay));
+  }
+
+  @Test
+  public void shouldSkipRangesWithPrecedingEndDates() throws Exception {
+    Constructor<?> constructor = load("sample.Booking$Cancellation").getDeclaredConstructor();
+    constructor.setAccessible(true);
+    Object cancellation = constructor.newInstance();
+    set(cancellation, "start", new Date(0));
+    set(cancellation, "end", 2 * DAY);
+    Assert.assertFalse(isValid(cancellation));
+
+    set(cancellation, "cancelled", new Date(0));
+    Assert.assertTrue(isValid(cancellation));
+  }
+
+  @Test
+  public void shouldWriteNativeImageReflectionConfig() throws Exception {
+    String config = new String(Files.readAllBytes(directory.resolve(
+        "META-INF/native-image/validation.constraints/generated/reflect-config.json")),
+        StandardCharsets.UTF_8);
+
+    for (String name : new String[] { "sample.Base", "sample.Booking$Stay",
+        "sample.Booking$Cancellation", "sample.Booking$Hidden", "sample.Guest", "sample.Host" }) {
+      Assert.assertTrue(name, config.contains("\"name\" : \"" + name + "\",\n"
+          + "    \"allDeclaredConstructors\" : true"));
+    }
+    Assert.assertTrue(config.contains("\"name\" : \"sample.Booking$Stay_DateRangeValidator\",\n"
+        + "    \"methods\" : [ { \"name\" : \"<init>\""));
+    Assert.assertFalse(config.contains("sample.Booking$Hidden_DateRangeValidator"));
+  }
+
+  @Test
+  public void shouldMergeReflectionConfigOfIncrementalBuilds() throws Exception {
+    compile("Trip.java", "package other;\n"
+        + "import java.util.Date;\n"
+        + "import com.vcollaborate.validation.constraints.daterange.*;\n"
+        + "@DateRange\n"
+        + "public class Trip {\n"
+        + "  @StartDate Date start;\n"
+        + "  @EndDate Date end;\n"
+        + "}\n");
+
+    String config = new String(Files.readAllBytes(directory.resolve(
+        "META-INF/native-image/validation.constraints/generated/reflect-config.json")),
+        StandardCharsets.UTF_8);
+
+    for (String name : new String[] { "sample.Booking$Stay", "sample.Guest", "other.Trip" }) {
+      Assert.assertTrue(name, config.contains("\"name\" : \"" + name + "\",\n"
+          + "    \"allDeclaredConstructors\" : true"));
+    }
+    for (String name : new String[] { "sample.Booking$Stay", "other.Trip" }) {
+      Assert.assertTrue(name, config.contains("\"name\" : \"" + name + "_DateRangeValidator\",\n"
+          + "    \"methods\" : [ { \"name\" : \"<init>\""));
+    }
+  }
+
+  private Class<?> load(final String name) throws ClassNotFoundException {
+    return Class.forName(name, true, classLoader);
+  }
+
+  private static void set(final Object instance, final String name, final Object value)
+      throws ReflectiveOperationException {
+    for (Class<?> type = instance.getClass(); type != null; type = type.getSuperclass()) {
+      try {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(instance, value);
+        return;
+      } catch (NoSuchFieldException e) {
+        // continue with the superclass
+      }
+    }
+    throw new NoSuchFieldException(name);
+  }
+
+  /**
+   * Validates with the generated validator and asserts that the reflective plan agrees. The
+   * reflective plan validates a copy of the instance loaded by a {@link ReflectiveClassLoader}.
+   */
+  private boolean isValid(final Object instance) throws ReflectiveOperationException {
+    CompiledDateRange compiled = (CompiledDateRange) load(
+        instance.getClass().getName() + CompiledDateRange.CLASS_NAME_SUFFIX).getConstructor()
+        .newInstance();
+    boolean valid = compiled.isValid(instance);
+    Assert.assertEquals(valid, new DateRangeValidator().isValid(reflectiveCopy(instance), null));
+    return valid;
+  }
+
+  private Object reflectiveCopy(final Object instance) throws ReflectiveOperationException {
+    Constructor<?> constructor = Class.forName(instance.getClass().getName(), true,
+        reflectiveClassLoader).getDeclaredConstructor();
+    constructor.setAccessible(true);
+    Object copy = constructor.newInstance();
+    for (Class<?> type = instance.getClass(); type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers())) {
+          field.setAccessible(true);
+          set(copy, field.getName(), field.get(instance));
+        }
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Loads the compiled sample classes, but hides their generated validators, so they are
+   * validated by the reflective plan.
+   */
+  private static final class ReflectiveClassLoader extends URLClassLoader {
+
+    ReflectiveClassLoader(final URL url, final ClassLoader parent) {
+      super(new URL[] { url }, parent);
+    }
+
+    @Override
+    protected Class<?> findClass(final String name) throws ClassNotFoundException {
+      if (name.endsWith(CompiledDateRange.CLASS_NAME_SUFFIX)) {
+        throw new ClassNotFoundException(name);
+      }
+      return super.findClass(name);
+    }
+  }
+}
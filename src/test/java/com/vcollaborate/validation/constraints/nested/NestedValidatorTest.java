@@ -19,12 +19,24 @@
         
 package com.vcollaborate.validation.constraints.nested;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import javax.validation.Configuration;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorFactory;
 import javax.validation.ConstraintViolation;
+import javax.validation.Path;
 import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
@@ -40,6 +52,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.vcollaborate.validation.constraints.daterange.DateRange;
+import com.vcollaborate.validation.constraints.daterange.DateRangeValidator;
 import com.vcollaborate.validation.constraints.daterange.EndDate;
 import com.vcollaborate.validation.constraints.daterange.StartDate;
 import com.vcollaborate.validation.constraints.nested.Nested;
@@ -79,6 +92,35 @@ public class NestedValidatorTest {
     private List<NestedDateRange> nestedDateRangeList = new ArrayList<NestedDateRange>();
   }
 
+  @Data
+  @SuppressWarnings("deprecation")
+  private class ClassWithParallelListOfNestedDateRanges {
+
+    @NotNull
+    @Nested(value = NestedDateRange.class, parallel = true, parallelThreshold = 16)
+    @lombok.Delegate
+    private List<NestedDateRange> nestedDateRangeList = new ArrayList<NestedDateRange>();
+  }
+
+  @Data
+  @SuppressWarnings("deprecation")
+  private class ClassWithPropagatedListOfNestedDateRanges {
+
+    @NotNull
+    @Nested(value = NestedDateRange.class, propagateViolations = true)
+    @lombok.Delegate
+    private List<NestedDateRange> nestedDateRangeList = new ArrayList<NestedDateRange>();
+  }
+
+  @Data
+  @SuppressWarnings("deprecation")
+  private class ClassWithMixedList {
+
+    @Nested(value = NestedDateRange.class, types = NestedDateRangeNullAllowed.class)
+    @lombok.Delegate
+    private List<Object> mixedList = new ArrayList<Object>();
+  }
+
   @Data
   @SuppressWarnings("deprecation")
   private class ClassWithNestedDateRange2 {
@@ -102,6 +144,9 @@ public class NestedValidatorTest {
     private Date end;
   }
 
+  private class ExtendedNestedDateRange extends NestedDateRange {
+  }
+
   @Data
   @DateRange
   private class NestedDateRangeNullAllowed {
@@ -246,4 +291,257 @@ public class NestedValidatorTest {
     Assert.assertTrue(errors2.size() == 1);
   }
 
+  @Test
+  public void testParallelNestedList() {
+    ClassWithParallelListOfNestedDateRanges instance =
+        new ClassWithParallelListOfNestedDateRanges();
+
+    DateTime dt = new DateTime();
+    for (int i = 0; i < 1000; i++) {
+      NestedDateRange nestedDateRange = new NestedDateRange();
+      nestedDateRange.setBegin(dt.plusDays(10).toDate());
+      nestedDateRange.setEnd(dt.plusDays(10 + 10).toDate());
+
+      instance.add(nestedDateRange);
+    }
+
+    Assert.assertTrue(validator.validateProperty(instance, "nestedDateRangeList").isEmpty());
+
+    NestedDateRange nestedDateRange = new NestedDateRange();
+    nestedDateRange.setBegin(dt.plusDays(10).toDate());
+    nestedDateRange.setEnd(dt.plusDays(10 + 5).toDate());
+    instance.add(500, nestedDateRange);
+
+    Set<ConstraintViolation<ClassWithParallelListOfNestedDateRanges>> errors =
+        validator.validateProperty(instance, "nestedDateRangeList");
+
+    Assert.assertTrue(errors.size() == 1);
+  }
+
+  /**
+   * The first element is valid, the second one has a too short range, the third one misses its
+   * begin. Both violations are reported at the path of their element.
+   */
+  @Test
+  public void testPropagatedViolations() {
+    ClassWithPropagatedListOfNestedDateRanges instance =
+        new ClassWithPropagatedListOfNestedDateRanges();
+
+    DateTime dt = new DateTime();
+    for (int days : new int[] { 10, 5, 10 }) {
+      NestedDateRange nestedDateRange = new NestedDateRange();
+      nestedDateRange.setBegin(dt.plusDays(10).toDate());
+      nestedDateRange.setEnd(dt.plusDays(10 + days).toDate());
+
+      instance.add(nestedDateRange);
+    }
+    instance.get(2).setBegin(null);
+
+    Set<ConstraintViolation<ClassWithPropagatedListOfNestedDateRanges>> errors =
+        validator.validateProperty(instance, "nestedDateRangeList");
+
+    Set<String> paths = new HashSet<String>();
+    for (ConstraintViolation<ClassWithPropagatedListOfNestedDateRanges> error : errors) {
+      log.info("{}: {}", error.getPropertyPath(), error.getMessage());
+      Path.Node leaf = null;
+      for (Path.Node node : error.getPropertyPath()) {
+        leaf = node;
+      }
+      paths.add(leaf.getIndex() + ":" + leaf.getName());
+    }
+
+    Assert.assertEquals(2, errors.size());
+    Assert.assertTrue(paths.contains("1:null"));
+    Assert.assertTrue(paths.contains("2:begin"));
+  }
+
+  @Test
+  public void testInjectedValidatorFactory() throws Exception {
+    NestedValidator nestedValidator = new NestedValidator(factory);
+    nestedValidator.initialize(ClassWithNestedDateRange.class.getDeclaredField("nestedDateRange")
+        .getAnnotation(Nested.class));
+
+    DateTime dt = new DateTime();
+    NestedDateRange nestedDateRange = new NestedDateRange();
+    nestedDateRange.setBegin(dt.plusDays(10).toDate());
+    nestedDateRange.setEnd(dt.plusDays(10 + 10).toDate());
+    Assert.assertTrue(nestedValidator.isValid(nestedDateRange, null));
+
+    nestedDateRange.setEnd(dt.plusDays(10 + 5).toDate());
+    Assert.assertFalse(nestedValidator.isValid(nestedDateRange, null));
+  }
+
+  @Test
+  public void testArraysIteratorsAndStreams() throws Exception {
+    NestedValidator nestedValidator = new NestedValidator(factory);
+    nestedValidator.initialize(ClassWithNestedDateRange.class.getDeclaredField("nestedDateRange")
+        .getAnnotation(Nested.class));
+
+    DateTime dt = new DateTime();
+    NestedDateRange[] nestedDateRanges = new NestedDateRange[3];
+    for (int i = 0; i < nestedDateRanges.length; i++) {
+      nestedDateRanges[i] = new NestedDateRange();
+      nestedDateRanges[i].setBegin(dt.plusDays(10).toDate());
+      nestedDateRanges[i].setEnd(dt.plusDays(10 + 10).toDate());
+    }
+    List<NestedDateRange> list = Arrays.asList(nestedDateRanges);
+
+    Assert.assertTrue(nestedValidator.isValid(nestedDateRanges, null));
+    Assert.assertTrue(nestedValidator.isValid(list.iterator(), null));
+    Assert.assertTrue(nestedValidator.isValid(list.spliterator(), null));
+    Assert.assertTrue(nestedValidator.isValid(list.stream(), null));
+
+    nestedDateRanges[2].setEnd(dt.plusDays(10 + 5).toDate());
+
+    Assert.assertFalse(nestedValidator.isValid(nestedDateRanges, null));
+    Assert.assertFalse(nestedValidator.isValid(list.iterator(), null));
+    Assert.assertFalse(nestedValidator.isValid(list.spliterator(), null));
+    Assert.assertFalse(nestedValidator.isValid(list.stream(), null));
+  }
+
+  /**
+   * Elements of several types and their subclasses are accepted, and null elements are valid. Any
+   * other element is invalid.
+   */
+  @Test
+  public void testAcceptedTypes() {
+    ClassWithMixedList instance = new ClassWithMixedList();
+
+    DateTime dt = new DateTime();
+    NestedDateRange nestedDateRange = new ExtendedNestedDateRange();
+    nestedDateRange.setBegin(dt.plusDays(10).toDate());
+    nestedDateRange.setEnd(dt.plusDays(10 + 10).toDate());
+    instance.add(nestedDateRange);
+    instance.add(new NestedDateRangeNullAllowed());
+    instance.add(null);
+
+    Assert.assertTrue(validator.validateProperty(instance, "mixedList").isEmpty());
+
+    instance.add("no date range");
+
+    Assert.assertEquals(1, validator.validateProperty(instance, "mixedList").size());
+  }
+
+  /**
+   * Registers a factory recording the constraint validators it creates, and validates with a new
+   * outer factory, so no {@link NestedValidator} initialized earlier is reused.
+   */
+  @Test
+  public void testRegisteredValidatorFactory() {
+    Configuration<?> configuration = Validation.byDefaultProvider().configure();
+    final ConstraintValidatorFactory defaultValidatorFactory =
+        configuration.getDefaultConstraintValidatorFactory();
+    final Set<Class<?>> createdValidators = new HashSet<Class<?>>();
+    ValidatorFactory registeredFactory = configuration.constraintValidatorFactory(
+        new ConstraintValidatorFactory() {
+          @Override
+          public <T extends ConstraintValidator<?, ?>> T getInstance(final Class<T> key) {
+            createdValidators.add(key);
+            return defaultValidatorFactory.getInstance(key);
+          }
+
+          @Override
+          public void releaseInstance(final ConstraintValidator<?, ?> instance) {
+            defaultValidatorFactory.releaseInstance(instance);
+          }
+        }).buildValidatorFactory();
+
+    NestedValidator.useValidatorFactory(registeredFactory);
+    ValidatorFactory outerFactory = Validation.buildDefaultValidatorFactory();
+    try {
+      ClassWithNestedDateRange instance = new ClassWithNestedDateRange();
+      DateTime dt = new DateTime();
+      instance.setBegin(dt.plusDays(10).toDate());
+      instance.setEnd(dt.plusDays(10 + 5).toDate());
+
+      Assert.assertFalse(outerFactory.getValidator().validate(instance).isEmpty());
+      Assert.assertTrue(createdValidators.contains(DateRangeValidator.class));
+    } finally {
+      NestedValidator.useValidatorFactory(null);
+      outerFactory.close();
+      registeredFactory.close();
+    }
+  }
+
+  @Test
+  public void testFailFastValidator() {
+    NestedDateRange nestedDateRange = new NestedDateRange();
+
+    Assert.assertEquals(2, factory.getValidator().validate(nestedDateRange).size());
+    Assert.assertEquals(1,
+        NestedValidator.getFailFastValidator(factory).validate(nestedDateRange).size());
+  }
+
+  @Test
+  public void testWarmUp() {
+    final Validator registeredValidator = factory.getValidator();
+    final List<Class<?>> describedTypes = new ArrayList<Class<?>>();
+    final Validator recordingValidator = (Validator) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] { Validator.class }, new InvocationHandler() {
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args)
+              throws Throwable {
+            if (method.getName().equals("getConstraintsForClass")) {
+              describedTypes.add((Class<?>) args[0]);
+            }
+            return method.invoke(registeredValidator, args);
+          }
+        });
+    ValidatorFactory recordingFactory = (ValidatorFactory) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] { ValidatorFactory.class },
+        new InvocationHandler() {
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args)
+              throws Throwable {
+            if (method.getName().equals("getValidator")) {
+              return recordingValidator;
+            }
+            return method.invoke(factory, args);
+          }
+        });
+
+    NestedValidator.useValidatorFactory(recordingFactory);
+    try {
+      NestedValidator.warmUp(NestedDateRange.class, ClassWithNestedDateRange.class);
+      Assert.assertEquals(
+          Arrays.<Class<?>>asList(NestedDateRange.class, ClassWithNestedDateRange.class),
+          describedTypes);
+
+      ClassWithNestedDateRange instance = new ClassWithNestedDateRange();
+      DateTime dt = new DateTime();
+      instance.setBegin(dt.plusDays(10).toDate());
+      instance.setEnd(dt.plusDays(10 + 10).toDate());
+
+      Assert.assertTrue(validator.validate(instance).isEmpty());
+    } finally {
+      NestedValidator.useValidatorFactory(null);
+    }
+  }
+
+  @Test
+  public void testLoadingDoesNotBuildDefaultFactory() throws Exception {
+    final String packageName = NestedValidator.class.getPackage().getName();
+    URL classes = NestedValidator.class.getProtectionDomain().getCodeSource().getLocation();
+    ClassLoader isolated = new URLClassLoader(new URL[] { classes }, getClass().getClassLoader()) {
+      @Override
+      protected Class<?> loadClass(final String name, final boolean resolve)
+          throws ClassNotFoundException {
+        if (!name.startsWith(packageName + ".")) {
+          return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+          Class<?> loaded = findLoadedClass(name);
+          return loaded != null ? loaded : findClass(name);
+        }
+      }
+    };
+
+    Class<?> nestedValidator = Class.forName(NestedValidator.class.getName(), true, isolated);
+    Assert.assertNotSame(NestedValidator.class, nestedValidator);
+    nestedValidator.getConstructor().newInstance();
+
+    Field defaultFactory = nestedValidator.getDeclaredField("defaultFactory");
+    defaultFactory.setAccessible(true);
+    Assert.assertNull(defaultFactory.get(null));
+  }
 }